@@ -9,6 +9,7 @@ import org.springframework.stereotype.Component;
 import tk.project.bankcards.entity.UserEntity;
 import tk.project.bankcards.enums.Role;
 import tk.project.bankcards.repository.UserRepository;
+import tk.project.bankcards.security.PrincipalCache;
 
 @Slf4j
 @Component
@@ -18,6 +19,7 @@ public class AdminInit {
 
   private final AdminConfig adminConfig;
   private final PasswordEncoder passwordEncoder;
+  private final PrincipalCache principalCache;
   private final UserRepository userRepository;
 
   @PostConstruct
@@ -37,6 +39,7 @@ public class AdminInit {
             .build();
 
     userRepository.save(admin);
+    principalCache.invalidate(admin.getEmail());
     log.info("Админ успешно зарегистрирован");
   }
 }
@@ -3,16 +3,25 @@ package tk.project.bankcards.config;
 import java.time.Instant;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.MessageSourceResolvable;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 import tk.project.bankcards.dto.ErrorResponse;
 import tk.project.bankcards.exception.BankCardConflictException;
 import tk.project.bankcards.exception.BankCardNotFoundException;
 import tk.project.bankcards.exception.BankCardStatusNotActiveException;
+import tk.project.bankcards.exception.BankCardTransferConflictException;
+import tk.project.bankcards.exception.IdempotencyKeyConflictException;
+import tk.project.bankcards.exception.InvalidCursorException;
 import tk.project.bankcards.exception.NotEnoughBankCardBalanceException;
+import tk.project.bankcards.exception.PasswordHashingUnavailableException;
+import tk.project.bankcards.exception.TooManyLoginAttemptsException;
+import tk.project.bankcards.exception.TransferNotFoundException;
 import tk.project.bankcards.exception.UserConflictException;
 import tk.project.bankcards.exception.UserNotAccessException;
 import tk.project.bankcards.exception.UserNotFoundException;
@@ -22,17 +31,32 @@ import tk.project.bankcards.exception.UserNotFoundException;
 public class AppExceptionHandler {
 
   @ResponseStatus(HttpStatus.NOT_FOUND)
-  @ExceptionHandler({BankCardNotFoundException.class, UserNotFoundException.class})
+  @ExceptionHandler({
+    BankCardNotFoundException.class,
+    TransferNotFoundException.class,
+    UserNotFoundException.class
+  })
   public ErrorResponse handleNotFound(RuntimeException ex) {
     return buildErrorResponse(ex, HttpStatus.NOT_FOUND);
   }
 
   @ResponseStatus(HttpStatus.CONFLICT)
-  @ExceptionHandler({BankCardConflictException.class, UserConflictException.class})
+  @ExceptionHandler({
+    BankCardConflictException.class,
+    BankCardTransferConflictException.class,
+    IdempotencyKeyConflictException.class,
+    UserConflictException.class
+  })
   public ErrorResponse handleConflict(RuntimeException ex) {
     return buildErrorResponse(ex, HttpStatus.CONFLICT);
   }
 
+  @ResponseStatus(HttpStatus.UNAUTHORIZED)
+  @ExceptionHandler(AuthenticationException.class)
+  public ErrorResponse handleUnauthorized(RuntimeException ex) {
+    return buildErrorResponse(ex, HttpStatus.UNAUTHORIZED);
+  }
+
   @ResponseStatus(HttpStatus.FORBIDDEN)
   @ExceptionHandler({NotEnoughBankCardBalanceException.class, UserNotAccessException.class})
   public ErrorResponse handleForbidden(RuntimeException ex) {
@@ -40,11 +64,23 @@ public class AppExceptionHandler {
   }
 
   @ResponseStatus(HttpStatus.BAD_REQUEST)
-  @ExceptionHandler(BankCardStatusNotActiveException.class)
+  @ExceptionHandler({BankCardStatusNotActiveException.class, InvalidCursorException.class})
   public ErrorResponse handleBadRequest(RuntimeException ex) {
     return buildErrorResponse(ex, HttpStatus.BAD_REQUEST);
   }
 
+  @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+  @ExceptionHandler(TooManyLoginAttemptsException.class)
+  public ErrorResponse handleTooManyRequests(RuntimeException ex) {
+    return buildErrorResponse(ex, HttpStatus.TOO_MANY_REQUESTS);
+  }
+
+  @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+  @ExceptionHandler(PasswordHashingUnavailableException.class)
+  public ErrorResponse handleServiceUnavailable(RuntimeException ex) {
+    return buildErrorResponse(ex, HttpStatus.SERVICE_UNAVAILABLE);
+  }
+
   @ResponseStatus(HttpStatus.BAD_REQUEST)
   @ExceptionHandler(MethodArgumentNotValidException.class)
   public ErrorResponse handleMethodArgumentNotValidException(MethodArgumentNotValidException ex) {
@@ -58,6 +94,18 @@ public class AppExceptionHandler {
     return buildErrorResponse(ex, HttpStatus.BAD_REQUEST, message);
   }
 
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  @ExceptionHandler(HandlerMethodValidationException.class)
+  public ErrorResponse handleHandlerMethodValidationException(
+      HandlerMethodValidationException ex) {
+    String message =
+        ex.getAllErrors().stream()
+            .map(MessageSourceResolvable::getDefaultMessage)
+            .collect(Collectors.joining("; "));
+
+    return buildErrorResponse(ex, HttpStatus.BAD_REQUEST, message);
+  }
+
   @ExceptionHandler(Throwable.class)
   @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
   public ErrorResponse handleUncaughtThrowable(Throwable ex) {
@@ -0,0 +1,57 @@
+package tk.project.bankcards.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.auth")
+public class AuthConfig {
+
+  private boolean basicEnabled = true;
+  private Hashing hashing = new Hashing();
+  private Token token = new Token();
+  private CredentialsCache credentialsCache = new CredentialsCache();
+  private PrincipalCache principalCache = new PrincipalCache();
+  private Throttle throttle = new Throttle();
+
+  @Data
+  public static class Hashing {
+    private int strength = 10;
+    private int poolSize = Runtime.getRuntime().availableProcessors();
+    /**
+     * Вызывающий поток ждет результат, поэтому очередь ограничена несколькими размерами пула:
+     * при всплеске запрос отклоняется с 503 раньше, чем в ожидании окажутся все потоки Tomcat.
+     */
+    private int queueCapacity = 16;
+  }
+
+  @Data
+  public static class Token {
+    private String secret;
+    private Duration ttl = Duration.ofMinutes(15);
+  }
+
+  @Data
+  public static class CredentialsCache {
+    private long maxSize = 10_000;
+    private Duration ttl = Duration.ofMinutes(5);
+  }
+
+  @Data
+  public static class PrincipalCache {
+    private long maxSize = 10_000;
+    private Duration ttl = Duration.ofMinutes(10);
+  }
+
+  @Data
+  public static class Throttle {
+    private boolean enabled = true;
+    private int capacity = 10;
+    private Duration refillInterval = Duration.ofSeconds(6);
+    private int stripes = 64;
+    private int maxEntriesPerStripe = 1_000;
+  }
+}
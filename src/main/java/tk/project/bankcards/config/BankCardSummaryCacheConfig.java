@@ -0,0 +1,15 @@
+package tk.project.bankcards.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.bank-card-summary-cache")
+public class BankCardSummaryCacheConfig {
+
+  private long maxSize = 10_000;
+  private Duration ttl = Duration.ofMinutes(10);
+}
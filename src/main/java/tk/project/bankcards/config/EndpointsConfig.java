@@ -14,6 +14,7 @@ public class EndpointsConfig {
   private String h2Path;
   private String registrationPath;
   private String usersPath;
+  private String tokenPath;
   private String bankCardsPath;
   private String requestsPath;
   private String adminAccess;
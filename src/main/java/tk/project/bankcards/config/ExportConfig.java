@@ -0,0 +1,14 @@
+package tk.project.bankcards.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.export")
+public class ExportConfig {
+
+  private int fetchSize = 1_000;
+  private int bufferSize = 64 * 1024;
+}
@@ -0,0 +1,19 @@
+package tk.project.bankcards.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.idempotency")
+public class IdempotencyConfig {
+
+  private Duration ttl = Duration.ofHours(24);
+  private long cacheMaxSize = 10_000;
+  private Duration cleanupInterval = Duration.ofMinutes(10);
+
+  /** Через сколько незавершенный ключ считается оставшимся от упавшего запроса. */
+  private Duration inProgressTimeout = Duration.ofMinutes(1);
+}
@@ -0,0 +1,13 @@
+package tk.project.bankcards.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.registration")
+public class RegistrationConfig {
+
+  private int bulkBatchSize = 50;
+}
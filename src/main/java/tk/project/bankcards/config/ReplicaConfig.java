@@ -0,0 +1,35 @@
+package tk.project.bankcards.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.replica")
+public class ReplicaConfig {
+
+  private boolean enabled = false;
+  private List<Pool> pools = new ArrayList<>();
+  private Duration readYourWritesWindow = Duration.ofSeconds(5);
+  private Duration maxLag = Duration.ofSeconds(2);
+  private Duration lagCheckInterval = Duration.ofSeconds(1);
+  private String lagQuery =
+      """
+      SELECT COALESCE(
+        CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+        ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END, 0)
+      """;
+
+  @Data
+  public static class Pool {
+    private String url;
+    private String username;
+    private String password;
+    private int maxPoolSize = 10;
+    private String lagQuery;
+  }
+}
@@ -0,0 +1,79 @@
+package tk.project.bankcards.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import tk.project.bankcards.datasource.ReadYourWritesTracker;
+import tk.project.bankcards.datasource.ReplicaRoutingDataSource;
+
+/**
+ * Основной пул и пулы реплик. Соединение берется лениво при первом запросе, поэтому транзакция
+ * только для чтения уже успевает пометить его read-only и получает соединение из
+ * {@link ReplicaRoutingDataSource}. Остальные соединения берутся из основного пула.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.replica", name = "enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+    HikariDataSource dataSource =
+        dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    dataSource.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+    return dataSource;
+  }
+
+  @Bean
+  public ReplicaRoutingDataSource replicaRoutingDataSource(
+      HikariDataSource primaryDataSource,
+      DataSourceProperties dataSourceProperties,
+      ReplicaConfig replicaConfig,
+      ReadYourWritesTracker readYourWritesTracker,
+      MeterRegistry meterRegistry) {
+    List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>();
+    for (int i = 0; i < replicaConfig.getPools().size(); i++) {
+      ReplicaConfig.Pool pool = replicaConfig.getPools().get(i);
+      HikariDataSource dataSource = new HikariDataSource();
+      dataSource.setPoolName("replica-" + (i + 1));
+      dataSource.setDriverClassName(dataSourceProperties.determineDriverClassName());
+      dataSource.setJdbcUrl(pool.getUrl());
+      dataSource.setUsername(pool.getUsername());
+      dataSource.setPassword(pool.getPassword());
+      dataSource.setMaximumPoolSize(pool.getMaxPoolSize());
+      dataSource.setReadOnly(true);
+      dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+      replicas.add(
+          new ReplicaRoutingDataSource.Replica(
+              dataSource.getPoolName(),
+              dataSource,
+              pool.getLagQuery() == null ? replicaConfig.getLagQuery() : pool.getLagQuery()));
+    }
+    return new ReplicaRoutingDataSource(
+        primaryDataSource,
+        replicas,
+        readYourWritesTracker,
+        replicaConfig.getMaxLag(),
+        meterRegistry);
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(
+      HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaRoutingDataSource) {
+    LazyConnectionDataSourceProxy dataSource =
+        new LazyConnectionDataSourceProxy(primaryDataSource);
+    dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+    return dataSource;
+  }
+}
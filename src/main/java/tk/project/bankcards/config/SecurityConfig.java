@@ -1,34 +1,75 @@
 package tk.project.bankcards.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.CsrfConfigurer;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.logout.HttpStatusReturningLogoutSuccessHandler;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import tk.project.bankcards.enums.Role;
+import tk.project.bankcards.security.AccessTokenFilter;
+import tk.project.bankcards.security.AccessTokenService;
+import tk.project.bankcards.security.CredentialsCache;
+import tk.project.bankcards.security.LoginThrottle;
+import tk.project.bankcards.security.LoginThrottleFilter;
 
 @Configuration
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+  private final AuthConfig authConfig;
   private final EndpointsConfig endpointsConfig;
 
   @Bean
   public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+    return new BCryptPasswordEncoder(authConfig.getHashing().getStrength());
   }
 
   @Bean
-  public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+  public AuthenticationManager authenticationManager(
+      AuthenticationConfiguration authenticationConfiguration) throws Exception {
+    return authenticationConfiguration.getAuthenticationManager();
+  }
+
+  @Bean
+  public SecurityFilterChain securityFilterChain(
+      HttpSecurity http,
+      AccessTokenService accessTokenService,
+      CredentialsCache credentialsCache,
+      LoginThrottle loginThrottle,
+      ObjectMapper objectMapper)
+      throws Exception {
+    if (authConfig.getThrottle().isEnabled()) {
+      http.addFilterBefore(
+          new LoginThrottleFilter(credentialsCache, loginThrottle, objectMapper),
+          BasicAuthenticationFilter.class);
+    }
+    if (authConfig.isBasicEnabled()) {
+      http.httpBasic(Customizer.withDefaults());
+    } else {
+      http.sessionManagement(
+              session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+          .exceptionHandling(
+              exceptions ->
+                  exceptions.authenticationEntryPoint(
+                      new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)));
+    }
+
     return http.csrf(CsrfConfigurer::disable)
-        .httpBasic(Customizer.withDefaults())
+        .addFilterBefore(
+            new AccessTokenFilter(accessTokenService), BasicAuthenticationFilter.class)
         .headers(headers -> headers.frameOptions(HeadersConfigurer.FrameOptionsConfig::disable))
         .authorizeHttpRequests(
             auth ->
@@ -0,0 +1,56 @@
+package tk.project.bankcards.config;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import tk.project.bankcards.enums.TransferMode;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.transfer")
+public class TransferConfig {
+
+  private TransferMode mode = TransferMode.PESSIMISTIC;
+  private boolean ledgerEnabled = true;
+
+  /** Сколько запрос ждет результат перевода в режимах SEQUENCED и GROUP_COMMIT. */
+  private Duration awaitTimeout = Duration.ofSeconds(30);
+
+  private Optimistic optimistic = new Optimistic();
+  private Sequencer sequencer = new Sequencer();
+  private GroupCommit groupCommit = new GroupCommit();
+  private Async async = new Async();
+
+  @Data
+  public static class Optimistic {
+    private int maxAttempts = 5;
+    private Duration initialBackoff = Duration.ofMillis(5);
+    private Duration maxBackoff = Duration.ofMillis(100);
+  }
+
+  @Data
+  public static class Sequencer {
+    private int lanes = 16;
+    private int maxBatchSize = 64;
+  }
+
+  @Data
+  public static class GroupCommit {
+    private Duration window = Duration.ofMillis(2);
+    private int maxBatchSize = 128;
+  }
+
+  @Data
+  public static class Async {
+    private boolean enabled = true;
+    private int workers = 4;
+    private int batchSize = 16;
+    private Duration pollInterval = Duration.ofMillis(50);
+
+    /** Через сколько перевод в статусе PROCESSING считается брошенным упавшим обработчиком. */
+    private Duration processingTimeout = Duration.ofMinutes(1);
+
+    private Duration recoveryInterval = Duration.ofMinutes(1);
+  }
+}
@@ -10,7 +10,10 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,15 +21,27 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import tk.project.bankcards.dto.BankCardCreateDto;
 import tk.project.bankcards.dto.BankCardInfoDto;
+import tk.project.bankcards.dto.BankCardPageDto;
 import tk.project.bankcards.dto.BankCardShortInfoDto;
+import tk.project.bankcards.dto.BankCardSummaryDto;
 import tk.project.bankcards.dto.TransferDto;
+import tk.project.bankcards.dto.TransferStatusDto;
 import tk.project.bankcards.entity.UserEntity;
+import tk.project.bankcards.enums.ExportFormat;
+import tk.project.bankcards.service.AsyncTransferService;
+import tk.project.bankcards.service.BankCardExportService;
 import tk.project.bankcards.service.BankCardService;
+import tk.project.bankcards.service.IdempotencyService;
+import tk.project.bankcards.util.ETagged;
 
 @Slf4j
 @RestController
@@ -35,7 +50,16 @@ import tk.project.bankcards.service.BankCardService;
 @Tag(name = "BankCardController", description = "API для работы с банковскими картами")
 public class BankCardController {
 
+  private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+  private static final MediaType EXPORT_NDJSON_MEDIA_TYPE =
+      MediaType.parseMediaType("application/x-ndjson;charset=UTF-8");
+  private static final MediaType EXPORT_CSV_MEDIA_TYPE =
+      MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+  private final AsyncTransferService asyncTransferService;
+  private final BankCardExportService bankCardExportService;
   private final BankCardService bankCardService;
+  private final IdempotencyService idempotencyService;
 
   @ResponseStatus(HttpStatus.CREATED)
   @PostMapping("${app.controller.admin-access}")
@@ -93,6 +117,45 @@ public class BankCardController {
     return bankCards;
   }
 
+  @GetMapping("${app.controller.admin-access}/cursor")
+  @Operation(summary = "Получение страницы банковских карт по курсору")
+  public BankCardPageDto findAllByCursor(
+      @RequestParam(name = "cursor", required = false) String cursor,
+      @RequestParam(name = "size", defaultValue = "20") int size) {
+
+    log.info("Получен запрос на получение страницы банковских карт по курсору.");
+
+    BankCardPageDto bankCards = bankCardService.findAll(cursor, size);
+
+    log.info("Выполнен запрос на получение страницы банковских карт по курсору.");
+    return bankCards;
+  }
+
+  @GetMapping("${app.controller.admin-access}/export")
+  @Operation(summary = "Потоковая выгрузка всех банковских карт в NDJSON или CSV")
+  public ResponseEntity<StreamingResponseBody> export(
+      @RequestParam(name = "format", defaultValue = "NDJSON") ExportFormat format,
+      @RequestParam(name = "gzip", defaultValue = "false") boolean gzip) {
+
+    log.info("Получен запрос на выгрузку банковских карт в формате {}.", format);
+
+    ResponseEntity.BodyBuilder response =
+        ResponseEntity.ok()
+            .contentType(
+                format == ExportFormat.CSV ? EXPORT_CSV_MEDIA_TYPE : EXPORT_NDJSON_MEDIA_TYPE)
+            .header(
+                HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"bank-cards." + format.name().toLowerCase() + "\"");
+    if (gzip) {
+      response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+    }
+    return response.body(
+        outputStream -> {
+          bankCardExportService.export(format, gzip, outputStream);
+          log.info("Выполнен запрос на выгрузку банковских карт в формате {}.", format);
+        });
+  }
+
   @DeleteMapping("${app.controller.admin-access}/{cardId}")
   @Operation(summary = "Удаление банковской карты")
   public BankCardInfoDto deleteById(@PathVariable("cardId") UUID cardId) {
@@ -106,41 +169,84 @@ public class BankCardController {
 
   @GetMapping("${app.controller.user-access}")
   @Operation(summary = "Получение информации о банковских картах пользователя")
-  public List<BankCardShortInfoDto> findAllByUserId(
+  public ResponseEntity<List<BankCardShortInfoDto>> findAllByUserId(
       @AuthenticationPrincipal UserEntity authUser,
       @PageableDefault(size = 10, sort = "balance", direction = Sort.Direction.DESC)
-          Pageable pageable) {
+          Pageable pageable,
+      WebRequest request) {
 
     log.info(
         "Получен запрос на получение информации о банковских счетах пользователя с id {}.",
         authUser.getId());
 
-    List<BankCardShortInfoDto> bankCards =
+    if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+        && request.checkNotModified(bankCardService.getETagByUserId(authUser.getId(), pageable))) {
+      log.info("Банковские карты пользователя с id {} не изменились.", authUser.getId());
+      return null;
+    }
+    ETagged<List<BankCardShortInfoDto>> bankCards =
         bankCardService.findAllByUserId(authUser.getId(), pageable);
 
     log.info(
         "Выполнен запрос на получение информации о банковских картах пользователя с id {}.",
         authUser.getId());
+    return ResponseEntity.ok().eTag(bankCards.etag()).body(bankCards.value());
+  }
+
+  @GetMapping("${app.controller.user-access}/cursor")
+  @Operation(summary = "Получение страницы банковских карт пользователя по курсору")
+  public BankCardPageDto findAllByUserIdAndCursor(
+      @AuthenticationPrincipal UserEntity authUser,
+      @RequestParam(name = "cursor", required = false) String cursor,
+      @RequestParam(name = "size", defaultValue = "10") int size) {
+
+    log.info(
+        "Получен запрос на получение страницы банковских карт пользователя с id {} по курсору.",
+        authUser.getId());
+
+    BankCardPageDto bankCards = bankCardService.findAllByUserId(authUser.getId(), cursor, size);
+
+    log.info(
+        "Выполнен запрос на получение страницы банковских карт пользователя с id {} по курсору.",
+        authUser.getId());
     return bankCards;
   }
 
+  @GetMapping("${app.controller.user-access}/summary")
+  @Operation(summary = "Получение сводной информации о банковских картах пользователя")
+  public BankCardSummaryDto getSummary(@AuthenticationPrincipal UserEntity authUser) {
+
+    log.info(
+        "Получен запрос на получение сводной информации о банковских картах пользователя с id {}.",
+        authUser.getId());
+
+    BankCardSummaryDto summary = bankCardService.getSummaryByUserId(authUser.getId());
+
+    log.info(
+        "Выполнен запрос на получение сводной информации о банковских картах пользователя с id {}.",
+        authUser.getId());
+    return summary;
+  }
+
   @GetMapping("${app.controller.user-access}/{cardId}")
   @Operation(summary = "Получение информации о банковской карте")
-  public BankCardInfoDto getById(
+  public ResponseEntity<BankCardInfoDto> getById(
       @PathVariable("cardId") UUID cardId, @AuthenticationPrincipal UserEntity authUser) {
 
     log.info("Получен запрос на получение информации о банковской карте с id {}.", cardId);
 
-    BankCardInfoDto foundCard = bankCardService.getById(cardId, authUser);
+    ETagged<BankCardInfoDto> foundCard = bankCardService.getById(cardId, authUser);
 
-    log.info("Выполнен запрос на получение информации о банковской карте: {}.", foundCard);
-    return foundCard;
+    log.info("Выполнен запрос на получение информации о банковской карте: {}.", foundCard.value());
+    return ResponseEntity.ok().eTag(foundCard.etag()).body(foundCard.value());
   }
 
   @PostMapping("${app.controller.user-access}/transfer-self")
   @Operation(summary = "Перевод средств между своими банковскими картами")
   public void transfer(
-      @Valid @RequestBody TransferDto transferDto, @AuthenticationPrincipal UserEntity authUser) {
+      @Valid @RequestBody TransferDto transferDto,
+      @RequestHeader(name = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+      @AuthenticationPrincipal UserEntity authUser) {
 
     log.info(
         "Получен запрос на перевод средств с банковской карты с id {} на карту с id {} в размере {}.",
@@ -148,7 +254,16 @@ public class BankCardController {
         transferDto.toCardId(),
         transferDto.amount());
 
-    bankCardService.transferBetweenOwnerCard(transferDto, authUser);
+    if (idempotencyKey == null) {
+      bankCardService.transferBetweenOwnerCard(transferDto, authUser);
+    } else {
+      idempotencyService.execute(
+          authUser.getId(),
+          idempotencyKey,
+          transferDto,
+          onCompleted ->
+              bankCardService.transferBetweenOwnerCard(transferDto, authUser, onCompleted));
+    }
 
     log.info(
         "Выполнен запрос на перевод средств с банковской карты с id {} на карту с id {} в размере {}.",
@@ -156,4 +271,34 @@ public class BankCardController {
         transferDto.toCardId(),
         transferDto.amount());
   }
+
+  @ResponseStatus(HttpStatus.ACCEPTED)
+  @PostMapping("${app.controller.user-access}/transfer-self/async")
+  @Operation(summary = "Асинхронный перевод средств между своими банковскими картами")
+  public TransferStatusDto transferAsync(
+      @Valid @RequestBody TransferDto transferDto, @AuthenticationPrincipal UserEntity authUser) {
+
+    log.info(
+        "Получен запрос на асинхронный перевод с банковской карты с id {} на карту с id {}.",
+        transferDto.fromCardId(),
+        transferDto.toCardId());
+
+    TransferStatusDto transfer = asyncTransferService.submit(transferDto, authUser);
+
+    log.info("Выполнен запрос на асинхронный перевод средств, id перевода: {}.", transfer.id());
+    return transfer;
+  }
+
+  @GetMapping("${app.controller.user-access}/transfers/{transferId}")
+  @Operation(summary = "Получение состояния перевода средств")
+  public TransferStatusDto getTransferStatus(
+      @PathVariable("transferId") UUID transferId, @AuthenticationPrincipal UserEntity authUser) {
+
+    log.info("Получен запрос на получение состояния перевода с id {}.", transferId);
+
+    TransferStatusDto transfer = asyncTransferService.getStatus(transferId, authUser);
+
+    log.info("Выполнен запрос на получение состояния перевода с id {}.", transferId);
+    return transfer;
+  }
 }
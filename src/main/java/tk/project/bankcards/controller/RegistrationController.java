@@ -3,6 +3,8 @@ package tk.project.bankcards.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -11,6 +13,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import tk.project.bankcards.dto.UserBulkRegisterResultDto;
 import tk.project.bankcards.dto.UserInfoDto;
 import tk.project.bankcards.dto.UserRegisterDto;
 import tk.project.bankcards.service.UserService;
@@ -22,6 +25,9 @@ import tk.project.bankcards.service.UserService;
 @Tag(name = "RegistrationController", description = "API для регистрации пользователей")
 public class RegistrationController {
 
+  /** Ограничивает объем хэширования паролей и поиска почт в одном запросе. */
+  public static final int MAX_BULK_SIZE = 1000;
+
   private final UserService userService;
 
   @PostMapping
@@ -42,4 +48,19 @@ public class RegistrationController {
         savedUser.email());
     return savedUser;
   }
+
+  @PostMapping("/bulk")
+  @Operation(summary = "Пакетная регистрация пользователей с отчетом по каждому пользователю")
+  public UserBulkRegisterResultDto registerAll(
+      @RequestBody @Size(max = MAX_BULK_SIZE) List<UserRegisterDto> users) {
+    log.info("Получен запрос на пакетную регистрацию {} пользователей.", users.size());
+
+    UserBulkRegisterResultDto result = userService.registerAll(users);
+
+    log.info(
+        "Выполнен запрос на пакетную регистрацию пользователей: зарегистрировано {}, отклонено {}.",
+        result.registered(),
+        result.failed());
+    return result;
+  }
 }
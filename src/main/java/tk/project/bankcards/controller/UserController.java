@@ -2,18 +2,23 @@ package tk.project.bankcards.controller;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import tk.project.bankcards.dto.AccessTokenDto;
+import tk.project.bankcards.dto.LoginDto;
 import tk.project.bankcards.dto.UserInfoDto;
 import tk.project.bankcards.dto.UserUpdateDto;
+import tk.project.bankcards.entity.UserEntity;
+import tk.project.bankcards.service.AuthService;
 import tk.project.bankcards.service.UserService;
 
 @Slf4j
@@ -23,13 +28,27 @@ import tk.project.bankcards.service.UserService;
 @Tag(name = "UserController", description = "API для получения информации о пользователе")
 public class UserController {
 
+  private final AuthService authService;
   private final UserService userService;
 
   @GetMapping("${app.controller.user-access}")
   @Operation(summary = "Получение информации об аутентифицированном пользователе")
-  public UserInfoDto login(@AuthenticationPrincipal UserDetails user) {
+  public UserInfoDto login(@AuthenticationPrincipal UserEntity user) {
     log.info("Запрос на получение данных пользователя с почтой: {}", user.getUsername());
-    return userService.getUserByEmail(user.getUsername());
+    return userService.getUserInfo(user);
+  }
+
+  @PostMapping("${app.controller.token-path}")
+  @Operation(summary = "Получение токена доступа по почте и паролю")
+  public AccessTokenDto token(@Valid @RequestBody LoginDto login, HttpServletRequest request) {
+    log.info(
+        "Получен запрос на выпуск токена доступа для пользователя с почтой {}.", login.email());
+
+    AccessTokenDto accessToken = authService.issueToken(login, request.getRemoteAddr());
+
+    log.info(
+        "Выполнен запрос на выпуск токена доступа для пользователя с почтой {}.", login.email());
+    return accessToken;
   }
 
   @PatchMapping("${app.controller.admin-access}")
@@ -0,0 +1,41 @@
+package tk.project.bankcards.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.UUID;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import tk.project.bankcards.config.ReplicaConfig;
+import tk.project.bankcards.entity.UserEntity;
+
+/**
+ * Пользователи, которые недавно сами изменили данные. Их чтения в течение заданного окна
+ * выполняются на основном пуле, чтобы не увидеть состояние реплики до своего изменения.
+ */
+@Component
+public class ReadYourWritesTracker {
+
+  private static final long MAX_TRACKED_USERS = 100_000;
+
+  private final Cache<UUID, Boolean> recentWriters;
+
+  public ReadYourWritesTracker(ReplicaConfig replicaConfig) {
+    this.recentWriters =
+        Caffeine.newBuilder()
+            .maximumSize(MAX_TRACKED_USERS)
+            .expireAfterWrite(replicaConfig.getReadYourWritesWindow())
+            .build();
+  }
+
+  public void recordWrite(UUID userId) {
+    recentWriters.put(userId, Boolean.TRUE);
+  }
+
+  public boolean currentUserHasRecentWrite() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    return authentication != null
+        && authentication.getPrincipal() instanceof UserEntity user
+        && recentWriters.getIfPresent(user.getId()) != null;
+  }
+}
@@ -0,0 +1,109 @@
+package tk.project.bankcards.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Источник соединений только для чтения. Реплики выбираются по кругу среди тех, чье отставание
+ * не превышает допустимое. Основной пул используется, если пользователь недавно сам изменял данные
+ * или подходящих реплик нет. Отставание реплик проверяется по расписанию, до первой проверки
+ * реплика считается отстающей.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+  public static final String PRIMARY = "primary";
+
+  private final List<Replica> replicas;
+  private final ReadYourWritesTracker readYourWritesTracker;
+  private final long maxLagMillis;
+  private final AtomicInteger nextReplica = new AtomicInteger();
+  private final Map<String, Counter> readCounters = new HashMap<>();
+  private final Map<String, Long> lagMillis = new ConcurrentHashMap<>();
+
+  public ReplicaRoutingDataSource(
+      DataSource primaryDataSource,
+      List<Replica> replicas,
+      ReadYourWritesTracker readYourWritesTracker,
+      Duration maxLag,
+      MeterRegistry meterRegistry) {
+    this.replicas = replicas;
+    this.readYourWritesTracker = readYourWritesTracker;
+    this.maxLagMillis = maxLag.toMillis();
+
+    Map<Object, Object> targetDataSources = new HashMap<>();
+    targetDataSources.put(PRIMARY, primaryDataSource);
+    replicas.forEach(replica -> targetDataSources.put(replica.name(), replica.dataSource()));
+    setTargetDataSources(targetDataSources);
+    setDefaultTargetDataSource(primaryDataSource);
+    setLenientFallback(false);
+
+    targetDataSources
+        .keySet()
+        .forEach(
+            pool ->
+                readCounters.put(
+                    (String) pool,
+                    Counter.builder("datasource.routing.reads")
+                        .tag("pool", (String) pool)
+                        .register(meterRegistry)));
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    String pool = choosePool();
+    readCounters.get(pool).increment();
+    return pool;
+  }
+
+  @Scheduled(fixedDelayString = "${app.replica.lag-check-interval:PT1S}")
+  public void checkLag() {
+    for (Replica replica : replicas) {
+      try (Connection connection = replica.dataSource().getConnection();
+          Statement statement = connection.createStatement();
+          ResultSet resultSet = statement.executeQuery(replica.lagQuery())) {
+        resultSet.next();
+        lagMillis.put(replica.name(), Math.round(resultSet.getDouble(1) * 1000));
+      } catch (SQLException ex) {
+        lagMillis.remove(replica.name());
+        log.warn("Не удалось проверить отставание реплики {}.", replica.name(), ex);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    replicas.forEach(replica -> replica.dataSource().close());
+  }
+
+  private String choosePool() {
+    if (readYourWritesTracker.currentUserHasRecentWrite()) {
+      return PRIMARY;
+    }
+    int start = nextReplica.getAndIncrement();
+    for (int i = 0; i < replicas.size(); i++) {
+      Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+      if (lagMillis.getOrDefault(replica.name(), Long.MAX_VALUE) <= maxLagMillis) {
+        return replica.name();
+      }
+    }
+    return PRIMARY;
+  }
+
+  public record Replica(String name, HikariDataSource dataSource, String lagQuery) {}
+}
@@ -0,0 +1,13 @@
+package tk.project.bankcards.dto;
+
+import static io.swagger.v3.oas.annotations.media.Schema.RequiredMode.REQUIRED;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Instant;
+
+@Schema(description = "DTO для информации о токене доступа")
+public record AccessTokenDto(
+    @Schema(description = "Токен доступа", requiredMode = REQUIRED) String accessToken,
+    @Schema(description = "Тип токена", example = "Bearer", requiredMode = REQUIRED)
+        String tokenType,
+    @Schema(description = "Время истечения токена", requiredMode = REQUIRED) Instant expiresAt) {}
@@ -4,6 +4,7 @@ import static io.swagger.v3.oas.annotations.media.Schema.RequiredMode.REQUIRED;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.Future;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -11,6 +12,7 @@ import jakarta.validation.constraints.NotNull;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.UUID;
+import tk.project.bankcards.entity.Money;
 
 @Schema(description = "DTO для запроса на создание банковской карты")
 public record BankCardCreateDto(
@@ -28,4 +30,7 @@ public record BankCardCreateDto(
             example = "15-12-2027",
             requiredMode = REQUIRED)
         LocalDate expiryDate,
-    @NotNull @Schema(description = "Баланс карты", requiredMode = REQUIRED) BigDecimal balance) {}
+    @NotNull
+        @Digits(integer = 14, fraction = Money.SCALE)
+        @Schema(description = "Баланс карты", requiredMode = REQUIRED)
+        BigDecimal balance) {}
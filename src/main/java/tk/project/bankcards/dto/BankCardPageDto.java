@@ -0,0 +1,16 @@
+package tk.project.bankcards.dto;
+
+import static io.swagger.v3.oas.annotations.media.Schema.RequiredMode.NOT_REQUIRED;
+import static io.swagger.v3.oas.annotations.media.Schema.RequiredMode.REQUIRED;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "DTO для страницы банковских карт с курсором следующей страницы")
+public record BankCardPageDto(
+    @Schema(description = "Банковские карты", requiredMode = REQUIRED)
+        List<BankCardShortInfoDto> content,
+    @Schema(
+            description = "Курсор следующей страницы, отсутствует на последней странице",
+            requiredMode = NOT_REQUIRED)
+        String nextCursor) {}
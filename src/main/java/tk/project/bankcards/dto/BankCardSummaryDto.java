@@ -0,0 +1,25 @@
+package tk.project.bankcards.dto;
+
+import static io.swagger.v3.oas.annotations.media.Schema.RequiredMode.NOT_REQUIRED;
+import static io.swagger.v3.oas.annotations.media.Schema.RequiredMode.REQUIRED;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+import tk.project.bankcards.enums.BankCardStatus;
+
+@Schema(description = "DTO для сводной информации о банковских картах пользователя")
+public record BankCardSummaryDto(
+    @Schema(description = "Количество карт", requiredMode = REQUIRED) long cardCount,
+    @Schema(description = "Суммарный баланс карт", requiredMode = REQUIRED)
+        BigDecimal totalBalance,
+    @Schema(description = "Количество карт по статусам", requiredMode = REQUIRED)
+        Map<BankCardStatus, Long> cardCountByStatus,
+    @JsonFormat(pattern = "dd-MM-yyyy")
+        @Schema(
+            description = "Ближайший срок действия активной карты, отсутствует без активных карт",
+            example = "15-12-2025",
+            requiredMode = NOT_REQUIRED)
+        LocalDate nextExpiryDate) {}
@@ -0,0 +1,12 @@
+package tk.project.bankcards.dto;
+
+import static io.swagger.v3.oas.annotations.media.Schema.RequiredMode.REQUIRED;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+
+@Schema(description = "DTO для запроса на получение токена доступа")
+public record LoginDto(
+    @NotBlank @Schema(description = "Email пользователя", requiredMode = REQUIRED) String email,
+    @NotBlank @Schema(description = "Пароль пользователя", requiredMode = REQUIRED)
+        String password) {}
@@ -0,0 +1,17 @@
+package tk.project.bankcards.dto;
+
+import static io.swagger.v3.oas.annotations.media.Schema.RequiredMode.REQUIRED;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.math.BigDecimal;
+import java.util.UUID;
+import tk.project.bankcards.enums.TransferStatus;
+
+@Schema(description = "DTO для состояния перевода средств между картами")
+public record TransferStatusDto(
+    @Schema(description = "Id перевода", requiredMode = REQUIRED) UUID id,
+    @Schema(description = "Id карты отправления", requiredMode = REQUIRED) UUID fromCardId,
+    @Schema(description = "Id карты получения", requiredMode = REQUIRED) UUID toCardId,
+    @Schema(description = "Сумма перевода", requiredMode = REQUIRED) BigDecimal amount,
+    @Schema(description = "Статус перевода", requiredMode = REQUIRED) TransferStatus status,
+    @Schema(description = "Причина отказа") String errorMessage) {}
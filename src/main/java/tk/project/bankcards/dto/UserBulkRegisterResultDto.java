@@ -0,0 +1,15 @@
+package tk.project.bankcards.dto;
+
+import static io.swagger.v3.oas.annotations.media.Schema.RequiredMode.REQUIRED;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.List;
+
+@Schema(description = "DTO для результата пакетной регистрации пользователей")
+public record UserBulkRegisterResultDto(
+    @Schema(description = "Количество зарегистрированных пользователей", requiredMode = REQUIRED)
+        int registered,
+    @Schema(description = "Количество отклоненных пользователей", requiredMode = REQUIRED)
+        int failed,
+    @Schema(description = "Результаты по каждому пользователю", requiredMode = REQUIRED)
+        List<UserRegisterResultDto> results) {}
@@ -0,0 +1,17 @@
+package tk.project.bankcards.dto;
+
+import static io.swagger.v3.oas.annotations.media.Schema.RequiredMode.NOT_REQUIRED;
+import static io.swagger.v3.oas.annotations.media.Schema.RequiredMode.REQUIRED;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.util.UUID;
+
+@Schema(description = "DTO для результата регистрации одного пользователя из пакета")
+public record UserRegisterResultDto(
+    @Schema(description = "Порядковый номер пользователя в запросе", requiredMode = REQUIRED)
+        int index,
+    @Schema(description = "Email пользователя", requiredMode = NOT_REQUIRED) String email,
+    @Schema(description = "Id зарегистрированного пользователя", requiredMode = NOT_REQUIRED)
+        UUID id,
+    @Schema(description = "Причина отказа в регистрации", requiredMode = NOT_REQUIRED)
+        String errorMessage) {}
@@ -1,6 +1,7 @@
 package tk.project.bankcards.entity;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
@@ -8,10 +9,11 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
-import java.math.BigDecimal;
+import jakarta.persistence.Version;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.UUID;
@@ -31,7 +33,12 @@ import tk.project.bankcards.enums.BankCardStatus;
 @Setter
 @Builder
 @AllArgsConstructor
-@Table(name = "bank_cards")
+@Table(
+    name = "bank_cards",
+    indexes =
+        @Index(
+            name = "idx_bank_cards_owner_id_balance_id",
+            columnList = "owner_id, balance DESC, id"))
 @RequiredArgsConstructor
 @EqualsAndHashCode(of = "number")
 @EntityListeners(AuditingEntityListener.class)
@@ -55,8 +62,13 @@ public class BankCardEntity {
   @Column(name = "status", nullable = false)
   private BankCardStatus status;
 
-  @Column(name = "balance", nullable = false, precision = 20, scale = 10)
-  private BigDecimal balance;
+  @Convert(converter = MoneyConverter.class)
+  @Column(name = "balance", nullable = false)
+  private Money balance;
+
+  @Version
+  @Column(name = "version", nullable = false)
+  private Long version;
 
   @CreatedDate
   @Column(name = "create_date_time", updatable = false, nullable = false)
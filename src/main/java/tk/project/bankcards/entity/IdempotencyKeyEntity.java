@@ -0,0 +1,62 @@
+package tk.project.bankcards.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+import tk.project.bankcards.enums.IdempotencyKeyStatus;
+
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@RequiredArgsConstructor
+@EntityListeners(AuditingEntityListener.class)
+@Table(
+    name = "idempotency_keys",
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "uk_idempotency_keys_user_id_key_hash",
+            columnNames = {"user_id", "key_hash"}),
+    indexes =
+        @Index(name = "idx_idempotency_keys_create_date_time", columnList = "create_date_time"))
+public class IdempotencyKeyEntity {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.UUID)
+  private UUID id;
+
+  @Column(name = "user_id", updatable = false, nullable = false)
+  private UUID userId;
+
+  @Column(name = "key_hash", updatable = false, nullable = false, length = 64)
+  private String keyHash;
+
+  @Column(name = "request_hash", updatable = false, nullable = false, length = 64)
+  private String requestHash;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "status", nullable = false, length = 16)
+  private IdempotencyKeyStatus status;
+
+  @CreatedDate
+  @Column(name = "create_date_time", updatable = false, nullable = false)
+  private Instant createDateTime;
+}
@@ -0,0 +1,52 @@
+package tk.project.bankcards.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.Immutable;
+import tk.project.bankcards.enums.LedgerEntryType;
+
+@Entity
+@Getter
+@Builder
+@Immutable
+@AllArgsConstructor
+@RequiredArgsConstructor
+@Table(
+    name = "ledger_entries",
+    indexes =
+        @Index(
+            name = "idx_ledger_entries_card_id_create_date_time",
+            columnList = "card_id, create_date_time"))
+public class LedgerEntryEntity {
+
+  @Id private UUID id;
+
+  @Column(name = "transfer_id", updatable = false, nullable = false)
+  private UUID transferId;
+
+  @Column(name = "card_id", updatable = false, nullable = false)
+  private UUID cardId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "entry_type", updatable = false, nullable = false, length = 10)
+  private LedgerEntryType entryType;
+
+  @Convert(converter = MoneyConverter.class)
+  @Column(name = "amount", updatable = false, nullable = false)
+  private Money amount;
+
+  @Column(name = "create_date_time", updatable = false, nullable = false)
+  private Instant createDateTime;
+}
@@ -0,0 +1,38 @@
+package tk.project.bankcards.entity;
+
+import java.math.BigDecimal;
+
+/**
+ * Денежная сумма в минимальных единицах (1/10000 денежной единицы). Переводится из BigDecimal один
+ * раз на границе DTO, арифметика выполняется над long без создания промежуточных объектов.
+ */
+public record Money(long minorUnits) implements Comparable<Money> {
+
+  public static final int SCALE = 4;
+  public static final Money ZERO = new Money(0L);
+
+  public static Money of(BigDecimal amount) {
+    return new Money(amount.movePointRight(SCALE).longValueExact());
+  }
+
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(minorUnits, SCALE);
+  }
+
+  public Money plus(Money other) {
+    return new Money(Math.addExact(minorUnits, other.minorUnits));
+  }
+
+  public Money minus(Money other) {
+    return new Money(Math.subtractExact(minorUnits, other.minorUnits));
+  }
+
+  public boolean isLessThan(Money other) {
+    return minorUnits < other.minorUnits;
+  }
+
+  @Override
+  public int compareTo(Money other) {
+    return Long.compare(minorUnits, other.minorUnits);
+  }
+}
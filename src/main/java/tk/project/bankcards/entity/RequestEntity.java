@@ -8,6 +8,7 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -29,7 +30,12 @@ import tk.project.bankcards.enums.RequestStatus;
 @Setter
 @Builder
 @AllArgsConstructor
-@Table(name = "requests")
+@Table(
+    name = "requests",
+    indexes = {
+      @Index(name = "idx_requests_bank_card_id_status", columnList = "bank_card_id, status"),
+      @Index(name = "idx_requests_owner_id", columnList = "owner_id")
+    })
 @RequiredArgsConstructor
 @EntityListeners(AuditingEntityListener.class)
 public class RequestEntity {
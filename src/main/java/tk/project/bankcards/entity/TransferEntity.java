@@ -0,0 +1,84 @@
+package tk.project.bankcards.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+import tk.project.bankcards.enums.TransferStatus;
+
+@Entity
+@Getter
+@Setter
+@Builder
+@AllArgsConstructor
+@RequiredArgsConstructor
+@EntityListeners(AuditingEntityListener.class)
+@Table(
+    name = "transfers",
+    indexes = {
+      @Index(
+          name = "idx_transfers_status_create_date_time",
+          columnList = "status, create_date_time"),
+      @Index(name = "idx_transfers_owner_id", columnList = "owner_id")
+    })
+public class TransferEntity {
+
+  public static final int ERROR_MESSAGE_LENGTH = 512;
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.UUID)
+  private UUID id;
+
+  @ManyToOne
+  @JoinColumn(name = "owner_id", updatable = false, nullable = false)
+  private UserEntity owner;
+
+  @Column(name = "from_card_id", updatable = false, nullable = false)
+  private UUID fromCardId;
+
+  @Column(name = "to_card_id", updatable = false, nullable = false)
+  private UUID toCardId;
+
+  @Convert(converter = MoneyConverter.class)
+  @Column(name = "amount", updatable = false, nullable = false)
+  private Money amount;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "status", nullable = false, length = 16)
+  private TransferStatus status;
+
+  @Column(name = "error_message", length = ERROR_MESSAGE_LENGTH)
+  private String errorMessage;
+
+  @Version
+  @Column(name = "version", nullable = false)
+  private Long version;
+
+  @CreatedDate
+  @Column(name = "create_date_time", updatable = false, nullable = false)
+  private Instant createDateTime;
+
+  @LastModifiedDate
+  @Column(name = "update_date_time", nullable = false)
+  private Instant updateDateTime;
+}
@@ -0,0 +1,6 @@
+package tk.project.bankcards.enums;
+
+public enum IdempotencyKeyStatus {
+  IN_PROGRESS,
+  COMPLETED
+}
@@ -0,0 +1,9 @@
+package tk.project.bankcards.enums;
+
+public enum TransferMode {
+  PESSIMISTIC,
+  OPTIMISTIC,
+  ATOMIC,
+  SEQUENCED,
+  GROUP_COMMIT
+}
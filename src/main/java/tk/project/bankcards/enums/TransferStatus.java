@@ -0,0 +1,8 @@
+package tk.project.bankcards.enums;
+
+public enum TransferStatus {
+  PENDING,
+  PROCESSING,
+  COMPLETED,
+  FAILED
+}
@@ -0,0 +1,7 @@
+package tk.project.bankcards.exception;
+
+public class BankCardTransferConflictException extends RuntimeException {
+  public BankCardTransferConflictException(String message) {
+    super(message);
+  }
+}
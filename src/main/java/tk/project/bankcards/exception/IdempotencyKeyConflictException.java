@@ -0,0 +1,7 @@
+package tk.project.bankcards.exception;
+
+public class IdempotencyKeyConflictException extends RuntimeException {
+  public IdempotencyKeyConflictException(String message) {
+    super(message);
+  }
+}
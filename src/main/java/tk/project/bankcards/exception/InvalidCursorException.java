@@ -0,0 +1,7 @@
+package tk.project.bankcards.exception;
+
+public class InvalidCursorException extends RuntimeException {
+  public InvalidCursorException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,7 @@
+package tk.project.bankcards.exception;
+
+public class PasswordHashingUnavailableException extends RuntimeException {
+  public PasswordHashingUnavailableException(String message) {
+    super(message);
+  }
+}
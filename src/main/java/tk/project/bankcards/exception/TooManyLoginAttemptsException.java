@@ -0,0 +1,7 @@
+package tk.project.bankcards.exception;
+
+public class TooManyLoginAttemptsException extends RuntimeException {
+  public TooManyLoginAttemptsException(String message) {
+    super(message);
+  }
+}
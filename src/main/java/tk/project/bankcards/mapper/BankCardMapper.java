@@ -1,5 +1,6 @@
 package tk.project.bankcards.mapper;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
 import org.mapstruct.Mapper;
@@ -10,7 +11,9 @@ import tk.project.bankcards.dto.BankCardCreateDto;
 import tk.project.bankcards.dto.BankCardInfoDto;
 import tk.project.bankcards.dto.BankCardShortInfoDto;
 import tk.project.bankcards.entity.BankCardEntity;
+import tk.project.bankcards.entity.Money;
 import tk.project.bankcards.entity.UserEntity;
+import tk.project.bankcards.repository.BankCardShortInfoProjection;
 
 @Mapper(componentModel = "spring")
 public interface BankCardMapper {
@@ -20,6 +23,7 @@ public interface BankCardMapper {
   @Mapping(target = "id", ignore = true)
   @Mapping(target = "owner", ignore = true)
   @Mapping(target = "status", ignore = true)
+  @Mapping(target = "version", ignore = true)
   BankCardEntity toBankCardEntity(BankCardCreateDto bankCardCreateDto);
 
   @Mapping(target = "number", source = "number", qualifiedByName = "mapNumber")
@@ -33,11 +37,25 @@ public interface BankCardMapper {
   @Mapping(target = "ownerId", source = "owner", qualifiedByName = "mapOwnerToId")
   List<BankCardShortInfoDto> toBankCardShortInfoDto(List<BankCardEntity> bankCards);
 
+  @Mapping(target = "number", source = "number", qualifiedByName = "mapNumber")
+  BankCardShortInfoDto fromShortInfoProjection(BankCardShortInfoProjection bankCard);
+
+  List<BankCardShortInfoDto> fromShortInfoProjections(
+      List<BankCardShortInfoProjection> bankCards);
+
   @Named("mapNumber")
   default String mapNumber(Long number) {
     return "**** **** **** " + Long.toString(number).substring(12);
   }
 
+  default Money toMoney(BigDecimal amount) {
+    return amount == null ? null : Money.of(amount);
+  }
+
+  default BigDecimal toBigDecimal(Money money) {
+    return money == null ? null : money.toBigDecimal();
+  }
+
   @Named("mapOwnerToId")
   default UUID mapOwnerToId(UserEntity owner) {
     return owner.getId();
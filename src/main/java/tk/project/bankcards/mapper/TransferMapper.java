@@ -0,0 +1,37 @@
+package tk.project.bankcards.mapper;
+
+import java.math.BigDecimal;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.factory.Mappers;
+import tk.project.bankcards.dto.TransferDto;
+import tk.project.bankcards.dto.TransferStatusDto;
+import tk.project.bankcards.entity.Money;
+import tk.project.bankcards.entity.TransferEntity;
+
+@Mapper(componentModel = "spring")
+public interface TransferMapper {
+
+  TransferMapper MAPPER = Mappers.getMapper(TransferMapper.class);
+
+  @Mapping(target = "id", ignore = true)
+  @Mapping(target = "owner", ignore = true)
+  @Mapping(target = "status", ignore = true)
+  @Mapping(target = "errorMessage", ignore = true)
+  @Mapping(target = "version", ignore = true)
+  @Mapping(target = "createDateTime", ignore = true)
+  @Mapping(target = "updateDateTime", ignore = true)
+  TransferEntity toTransferEntity(TransferDto transferDto);
+
+  TransferDto toTransferDto(TransferEntity transfer);
+
+  TransferStatusDto toTransferStatusDto(TransferEntity transfer);
+
+  default Money toMoney(BigDecimal amount) {
+    return amount == null ? null : Money.of(amount);
+  }
+
+  default BigDecimal toBigDecimal(Money money) {
+    return money == null ? null : money.toBigDecimal();
+  }
+}
@@ -1,18 +1,37 @@
 package tk.project.bankcards.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import tk.project.bankcards.entity.BankCardEntity;
+import tk.project.bankcards.entity.Money;
 
 @Repository
 public interface BankCardRepository extends JpaRepository<BankCardEntity, UUID> {
 
+  String SELECT_SHORT_INFO =
+      """
+      SELECT new tk.project.bankcards.repository.BankCardShortInfoProjection(
+        bc.id, bc.number, bc.owner.id, bc.expiryDate, bc.status, bc.balance,
+        bc.version, bc.updateDateTime)
+      FROM BankCardEntity bc
+      """;
+
+  String SELECT_VERSION =
+      """
+      SELECT new tk.project.bankcards.repository.BankCardVersionProjection(
+        bc.id, bc.version, bc.updateDateTime)
+      FROM BankCardEntity bc
+      """;
+
   Optional<BankCardEntity> findByNumber(Long number);
 
   @Query(
@@ -26,5 +45,103 @@ public interface BankCardRepository extends JpaRepository<BankCardEntity, UUID>
       nativeQuery = true)
   Optional<BankCardEntity> findByIdForUpdate(@Param("cardId") UUID cardId);
 
-  List<BankCardEntity> findAllByOwnerId(UUID ownerId, Pageable pageable);
+  @Query(
+      value =
+          """
+          SELECT *
+          FROM bank_cards bc
+          WHERE bc.id IN (:cardIds)
+          ORDER BY bc.id
+          FOR UPDATE
+          """,
+      nativeQuery = true)
+  List<BankCardEntity> findAllByIdInForUpdate(@Param("cardIds") Collection<UUID> cardIds);
+
+  @Modifying
+  @Query(
+      value =
+          """
+          UPDATE bank_cards
+          SET balance = balance - :amount,
+              version = version + 1,
+              update_date_time = CURRENT_TIMESTAMP
+          WHERE id = :cardId
+            AND owner_id = :ownerId
+            AND status = 'ACTIVE'
+            AND balance >= :amount
+          """,
+      nativeQuery = true)
+  int debitIfAllowed(
+      @Param("cardId") UUID cardId, @Param("ownerId") UUID ownerId, @Param("amount") long amount);
+
+  @Modifying
+  @Query(
+      value =
+          """
+          UPDATE bank_cards
+          SET balance = balance + :amount,
+              version = version + 1,
+              update_date_time = CURRENT_TIMESTAMP
+          WHERE id = :cardId
+            AND owner_id = :ownerId
+            AND status = 'ACTIVE'
+          """,
+      nativeQuery = true)
+  int creditIfAllowed(
+      @Param("cardId") UUID cardId, @Param("ownerId") UUID ownerId, @Param("amount") long amount);
+
+  @Query(SELECT_SHORT_INFO)
+  List<BankCardShortInfoProjection> findAllShortInfo(Pageable pageable);
+
+  @Query(SELECT_SHORT_INFO + "WHERE bc.owner.id = :ownerId")
+  List<BankCardShortInfoProjection> findAllShortInfoByOwnerId(
+      @Param("ownerId") UUID ownerId, Pageable pageable);
+
+  @Query(SELECT_VERSION + "WHERE bc.owner.id = :ownerId")
+  List<BankCardVersionProjection> findAllVersionsByOwnerId(
+      @Param("ownerId") UUID ownerId, Pageable pageable);
+
+  /** Ближайший срок действия считается только по картам, которые еще не истекли. */
+  @Query(
+      """
+      SELECT new tk.project.bankcards.repository.BankCardStatusSummaryProjection(
+        bc.status,
+        COUNT(bc),
+        SUM(bc.balance),
+        MIN(CASE WHEN bc.expiryDate >= CURRENT_DATE THEN bc.expiryDate END))
+      FROM BankCardEntity bc
+      WHERE bc.owner.id = :ownerId
+      GROUP BY bc.status
+      """)
+  List<BankCardStatusSummaryProjection> summarizeByOwnerId(@Param("ownerId") UUID ownerId);
+
+  @Query(SELECT_SHORT_INFO + "ORDER BY bc.number")
+  List<BankCardShortInfoProjection> findAllShortInfo(Limit limit);
+
+  /** Номер карты уникален, поэтому курсору достаточно номера, а условие - граница индекса. */
+  @Query(SELECT_SHORT_INFO + "WHERE bc.number > :number ORDER BY bc.number")
+  List<BankCardShortInfoProjection> findAllShortInfoAfter(
+      @Param("number") Long number, Limit limit);
+
+  @Query(SELECT_SHORT_INFO + "WHERE bc.owner.id = :ownerId ORDER BY bc.balance DESC, bc.id")
+  List<BankCardShortInfoProjection> findAllShortInfoByOwnerId(
+      @Param("ownerId") UUID ownerId, Limit limit);
+
+  /**
+   * bc.balance <= :balance задает начало диапазона в индексе (owner_id, balance DESC, id),
+   * остальное условие только отсекает уже показанные карты с той же суммой.
+   */
+  @Query(
+      SELECT_SHORT_INFO
+          + """
+          WHERE bc.owner.id = :ownerId
+            AND bc.balance <= :balance
+            AND (bc.balance < :balance OR bc.id > :id)
+          ORDER BY bc.balance DESC, bc.id
+          """)
+  List<BankCardShortInfoProjection> findAllShortInfoByOwnerIdAfter(
+      @Param("ownerId") UUID ownerId,
+      @Param("balance") Money balance,
+      @Param("id") UUID id,
+      Limit limit);
 }
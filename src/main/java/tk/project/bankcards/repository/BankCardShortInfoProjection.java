@@ -0,0 +1,26 @@
+package tk.project.bankcards.repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+import tk.project.bankcards.entity.Money;
+import tk.project.bankcards.enums.BankCardStatus;
+
+/**
+ * Колонки карты для списков, выбираемые одним запросом без загрузки владельца. Баланс нужен как
+ * ключ курсора при выборке карт пользователя, версия и время изменения - для ETag.
+ */
+public record BankCardShortInfoProjection(
+    UUID id,
+    Long number,
+    UUID ownerId,
+    LocalDate expiryDate,
+    BankCardStatus status,
+    Money balance,
+    Long version,
+    Instant updateDateTime) {
+
+  public BankCardVersionProjection toVersion() {
+    return new BankCardVersionProjection(id, version, updateDateTime);
+  }
+}
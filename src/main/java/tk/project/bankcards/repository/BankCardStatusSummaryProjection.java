@@ -0,0 +1,11 @@
+package tk.project.bankcards.repository;
+
+import java.time.LocalDate;
+import tk.project.bankcards.enums.BankCardStatus;
+
+/**
+ * Количество, суммарный баланс и ближайший срок действия карт пользователя в одном статусе. SUM
+ * не применяет конвертер баланса, поэтому баланс выбирается в минимальных единицах.
+ */
+public record BankCardStatusSummaryProjection(
+    BankCardStatus status, Long cardCount, Long balanceMinorUnits, LocalDate minExpiryDate) {}
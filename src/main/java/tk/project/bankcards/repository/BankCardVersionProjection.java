@@ -0,0 +1,10 @@
+package tk.project.bankcards.repository;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Колонки карты, по которым строится ETag списка: позволяют ответить 304 без выборки и
+ * преобразования остальных колонок.
+ */
+public record BankCardVersionProjection(UUID id, Long version, Instant updateDateTime) {}
@@ -0,0 +1,30 @@
+package tk.project.bankcards.repository;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import tk.project.bankcards.entity.IdempotencyKeyEntity;
+import tk.project.bankcards.enums.IdempotencyKeyStatus;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKeyEntity, UUID> {
+
+  Optional<IdempotencyKeyEntity> findByUserIdAndKeyHash(UUID userId, String keyHash);
+
+  @Modifying
+  @Query("UPDATE IdempotencyKeyEntity ik SET ik.status = :status WHERE ik.id = :id")
+  int updateStatus(@Param("id") UUID id, @Param("status") IdempotencyKeyStatus status);
+
+  @Modifying
+  @Query("DELETE FROM IdempotencyKeyEntity ik WHERE ik.id = :id AND ik.status = :status")
+  int deleteByIdAndStatus(@Param("id") UUID id, @Param("status") IdempotencyKeyStatus status);
+
+  @Modifying
+  @Query("DELETE FROM IdempotencyKeyEntity ik WHERE ik.createDateTime < :before")
+  int deleteAllCreatedBefore(@Param("before") Instant before);
+}
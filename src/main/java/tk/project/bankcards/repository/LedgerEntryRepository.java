@@ -0,0 +1,9 @@
+package tk.project.bankcards.repository;
+
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import tk.project.bankcards.entity.LedgerEntryEntity;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntryEntity, UUID> {}
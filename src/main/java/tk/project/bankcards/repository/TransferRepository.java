@@ -0,0 +1,59 @@
+package tk.project.bankcards.repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import tk.project.bankcards.entity.TransferEntity;
+import tk.project.bankcards.enums.TransferStatus;
+
+@Repository
+public interface TransferRepository extends JpaRepository<TransferEntity, UUID> {
+
+  @Query(
+      value =
+          """
+          SELECT *
+          FROM transfers t
+          WHERE t.status = 'PENDING'
+          ORDER BY t.create_date_time
+          LIMIT :limit
+          FOR UPDATE SKIP LOCKED
+          """,
+      nativeQuery = true)
+  List<TransferEntity> findPendingForUpdateSkipLocked(@Param("limit") int limit);
+
+  @Modifying
+  @Query(
+      """
+      UPDATE TransferEntity t
+      SET t.status = :status,
+          t.errorMessage = :errorMessage,
+          t.updateDateTime = :now,
+          t.version = t.version + 1
+      WHERE t.id = :id AND t.version = :version
+      """)
+  int updateStatus(
+      @Param("id") UUID id,
+      @Param("version") Long version,
+      @Param("status") TransferStatus status,
+      @Param("errorMessage") String errorMessage,
+      @Param("now") Instant now);
+
+  @Modifying
+  @Query(
+      """
+      UPDATE TransferEntity t
+      SET t.status = :newStatus, t.updateDateTime = :now, t.version = t.version + 1
+      WHERE t.status = :status AND t.updateDateTime < :before
+      """)
+  int updateStatusUpdatedBefore(
+      @Param("status") TransferStatus status,
+      @Param("before") Instant before,
+      @Param("newStatus") TransferStatus newStatus,
+      @Param("now") Instant now);
+}
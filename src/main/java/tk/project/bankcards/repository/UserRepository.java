@@ -1,8 +1,12 @@
 package tk.project.bankcards.repository;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import tk.project.bankcards.entity.UserEntity;
 
@@ -10,4 +14,7 @@ import tk.project.bankcards.entity.UserEntity;
 public interface UserRepository extends JpaRepository<UserEntity, UUID> {
 
   Optional<UserEntity> findByEmail(String email);
+
+  @Query("SELECT u.email FROM UserEntity u WHERE u.email IN :emails")
+  Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
 }
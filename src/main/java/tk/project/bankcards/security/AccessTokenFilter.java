@@ -0,0 +1,41 @@
+package tk.project.bankcards.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+@RequiredArgsConstructor
+public class AccessTokenFilter extends OncePerRequestFilter {
+
+  private static final String BEARER_PREFIX = AccessTokenService.TOKEN_TYPE + " ";
+
+  private final AccessTokenService accessTokenService;
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+    if (header != null && header.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+      accessTokenService
+          .parse(header.substring(BEARER_PREFIX.length()).trim())
+          .ifPresent(
+              user -> {
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(
+                    UsernamePasswordAuthenticationToken.authenticated(
+                        user, null, user.getAuthorities()));
+                SecurityContextHolder.setContext(context);
+              });
+    }
+    filterChain.doFilter(request, response);
+  }
+}
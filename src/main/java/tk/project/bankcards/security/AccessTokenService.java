@@ -0,0 +1,131 @@
+package tk.project.bankcards.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import tk.project.bankcards.config.AuthConfig;
+import tk.project.bankcards.dto.AccessTokenDto;
+import tk.project.bankcards.entity.UserEntity;
+import tk.project.bankcards.enums.Role;
+
+/**
+ * Выпуск и проверка токенов доступа вида {@code base64url(claims).base64url(HMAC-SHA256)}. Токен
+ * содержит все данные, необходимые для восстановления {@link UserEntity} без обращения к БД.
+ */
+@Slf4j
+@Component
+public class AccessTokenService {
+
+  public static final String TOKEN_TYPE = "Bearer";
+
+  private static final String HMAC_ALGORITHM = "HmacSHA256";
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+  private final AuthConfig authConfig;
+  private final ObjectMapper objectMapper;
+  private final ThreadLocal<Mac> mac;
+
+  public AccessTokenService(AuthConfig authConfig, ObjectMapper objectMapper) {
+    this.authConfig = authConfig;
+    this.objectMapper = objectMapper;
+
+    SecretKeySpec keySpec = new SecretKeySpec(secretKey(authConfig), HMAC_ALGORITHM);
+    this.mac = ThreadLocal.withInitial(() -> createMac(keySpec));
+  }
+
+  public AccessTokenDto issue(UserEntity user) {
+    Instant expiresAt = Instant.now().plus(authConfig.getToken().getTtl());
+    AccessTokenClaims claims =
+        new AccessTokenClaims(
+            user.getId(),
+            user.getName(),
+            user.getEmail(),
+            user.getRole(),
+            expiresAt.getEpochSecond());
+
+    String payload;
+    try {
+      payload = ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+    } catch (JsonProcessingException ex) {
+      throw new IllegalStateException("Не удалось сформировать токен доступа", ex);
+    }
+    return new AccessTokenDto(payload + "." + sign(payload), TOKEN_TYPE, expiresAt);
+  }
+
+  public Optional<UserEntity> parse(String token) {
+    int separator = token.lastIndexOf('.');
+    if (separator <= 0) {
+      return Optional.empty();
+    }
+
+    String payload = token.substring(0, separator);
+    byte[] expectedSignature = sign(payload).getBytes(StandardCharsets.US_ASCII);
+    byte[] actualSignature = token.substring(separator + 1).getBytes(StandardCharsets.US_ASCII);
+    if (!MessageDigest.isEqual(expectedSignature, actualSignature)) {
+      log.debug("Подпись токена доступа не прошла проверку.");
+      return Optional.empty();
+    }
+
+    AccessTokenClaims claims;
+    try {
+      claims = objectMapper.readValue(DECODER.decode(payload), AccessTokenClaims.class);
+    } catch (IOException | IllegalArgumentException ex) {
+      log.debug("Не удалось прочитать данные токена доступа.", ex);
+      return Optional.empty();
+    }
+
+    if (Instant.now().getEpochSecond() >= claims.exp()) {
+      log.debug("Срок действия токена доступа пользователя с id {} истек.", claims.id());
+      return Optional.empty();
+    }
+
+    return Optional.of(
+        UserEntity.builder()
+            .id(claims.id())
+            .name(claims.name())
+            .email(claims.email())
+            .role(claims.role())
+            .build());
+  }
+
+  private String sign(String payload) {
+    return ENCODER.encodeToString(mac.get().doFinal(payload.getBytes(StandardCharsets.US_ASCII)));
+  }
+
+  private static byte[] secretKey(AuthConfig authConfig) {
+    String secret = authConfig.getToken().getSecret();
+    if (secret != null && !secret.isBlank()) {
+      return secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    log.warn("Секрет для подписи токенов не задан, будет использован случайный ключ.");
+    byte[] key = new byte[32];
+    new SecureRandom().nextBytes(key);
+    return key;
+  }
+
+  private static Mac createMac(SecretKeySpec keySpec) {
+    try {
+      Mac hmac = Mac.getInstance(HMAC_ALGORITHM);
+      hmac.init(keySpec);
+      return hmac;
+    } catch (GeneralSecurityException ex) {
+      throw new IllegalStateException("Не удалось инициализировать " + HMAC_ALGORITHM, ex);
+    }
+  }
+
+  private record AccessTokenClaims(UUID id, String name, String email, Role role, long exp) {}
+}
@@ -0,0 +1,61 @@
+package tk.project.bankcards.security;
+
+import java.util.Optional;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import tk.project.bankcards.entity.UserEntity;
+
+@Component
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+  private final CredentialsCache credentialsCache;
+  private final DaoAuthenticationProvider delegate;
+
+  public CachingAuthenticationProvider(
+      UserDetailsService userDetailsService,
+      UserDetailsPasswordService userDetailsPasswordService,
+      PasswordEncoder passwordEncoder,
+      CredentialsCache credentialsCache) {
+    this.credentialsCache = credentialsCache;
+    this.delegate = new DaoAuthenticationProvider(userDetailsService);
+    this.delegate.setPasswordEncoder(passwordEncoder);
+    this.delegate.setUserDetailsPasswordService(userDetailsPasswordService);
+  }
+
+  @Override
+  public Authentication authenticate(Authentication authentication)
+      throws AuthenticationException {
+    String email = authentication.getName();
+    Object credentials = authentication.getCredentials();
+    if (email == null || credentials == null) {
+      return delegate.authenticate(authentication);
+    }
+
+    String password = credentials.toString();
+    Optional<UserEntity> cachedUser = credentialsCache.get(email, password);
+    if (cachedUser.isPresent()) {
+      UserEntity user = cachedUser.get();
+      return UsernamePasswordAuthenticationToken.authenticated(
+          user, password, user.getAuthorities());
+    }
+
+    long generation = credentialsCache.generation(email);
+    Authentication result = delegate.authenticate(authentication);
+    if (result.getPrincipal() instanceof UserEntity user) {
+      credentialsCache.put(email, password, user, generation);
+    }
+    return result;
+  }
+
+  @Override
+  public boolean supports(Class<?> authentication) {
+    return delegate.supports(authentication);
+  }
+}
@@ -0,0 +1,144 @@
+package tk.project.bankcards.security;
+
+import static tk.project.bankcards.util.TransactionCallbacks.runAfterCommit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import tk.project.bankcards.config.AuthConfig;
+import tk.project.bankcards.entity.UserEntity;
+
+/**
+ * Кэш успешно проверенных учетных данных. Хранит по почте пользователя HMAC от пары почта/пароль,
+ * что позволяет не выполнять BCrypt и поиск пользователя в БД при повторной аутентификации.
+ *
+ * <p>Проверка пароля до сохранения в кэш может прочитать пользователя до смены пароля и
+ * завершиться после удаления записи. Поэтому для почты ведется поколение, которое увеличивается
+ * при удалении, и запись сохраняется, только если поколение не изменилось с начала проверки.
+ * Поколения хранятся в фиксированном числе ячеек по хэшу почты: совпадение ячеек разных почт
+ * лишь пропускает сохранение в кэш.
+ */
+@Slf4j
+@Component
+public class CredentialsCache {
+
+  private static final String CACHE_NAME = "credentials";
+  private static final String HMAC_ALGORITHM = "HmacSHA256";
+  private static final int GENERATION_STRIPES = 1024;
+
+  private final Cache<String, CachedCredentials> cache;
+  private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+  private final ThreadLocal<Mac> mac;
+  private final Counter hitCounter;
+  private final Counter missCounter;
+
+  public CredentialsCache(AuthConfig authConfig, MeterRegistry meterRegistry) {
+    AuthConfig.CredentialsCache config = authConfig.getCredentialsCache();
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumSize(config.getMaxSize())
+            .expireAfterWrite(config.getTtl())
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+
+    byte[] key = new byte[32];
+    new SecureRandom().nextBytes(key);
+    SecretKeySpec keySpec = new SecretKeySpec(key, HMAC_ALGORITHM);
+    this.mac = ThreadLocal.withInitial(() -> createMac(keySpec));
+
+    this.hitCounter =
+        Counter.builder("auth.credentials.cache.requests")
+            .tag("result", "hit")
+            .register(meterRegistry);
+    this.missCounter =
+        Counter.builder("auth.credentials.cache.requests")
+            .tag("result", "miss")
+            .register(meterRegistry);
+  }
+
+  public Optional<UserEntity> get(String email, String password) {
+    CachedCredentials cached = cache.getIfPresent(email);
+    if (cached != null && MessageDigest.isEqual(cached.hash(), hash(email, password))) {
+      hitCounter.increment();
+      return Optional.of(cached.user());
+    }
+    missCounter.increment();
+    return Optional.empty();
+  }
+
+  public boolean matches(String email, String password) {
+    CachedCredentials cached = cache.getIfPresent(email);
+    return cached != null && MessageDigest.isEqual(cached.hash(), hash(email, password));
+  }
+
+  /** Поколение почты, которое нужно получить до проверки пароля и передать в put. */
+  public long generation(String email) {
+    return generations.get(stripe(email));
+  }
+
+  public void put(String email, String password, UserEntity user, long generation) {
+    CachedCredentials credentials = new CachedCredentials(hash(email, password), user);
+    cache
+        .asMap()
+        .compute(
+            email,
+            (key, cached) -> generations.get(stripe(key)) == generation ? credentials : cached);
+  }
+
+  public void invalidate(String email) {
+    remove(email);
+    runAfterCommit(() -> remove(email));
+    log.debug("Учетные данные пользователя с почтой {} удалены из кэша.", email);
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  private void remove(String email) {
+    cache
+        .asMap()
+        .compute(
+            email,
+            (key, cached) -> {
+              generations.incrementAndGet(stripe(key));
+              return null;
+            });
+  }
+
+  private static int stripe(String email) {
+    return Math.floorMod(email.hashCode(), GENERATION_STRIPES);
+  }
+
+  private byte[] hash(String email, String password) {
+    Mac hmac = mac.get();
+    hmac.update(email.getBytes(StandardCharsets.UTF_8));
+    hmac.update((byte) 0);
+    return hmac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static Mac createMac(SecretKeySpec keySpec) {
+    try {
+      Mac hmac = Mac.getInstance(HMAC_ALGORITHM);
+      hmac.init(keySpec);
+      return hmac;
+    } catch (GeneralSecurityException ex) {
+      throw new IllegalStateException("Не удалось инициализировать " + HMAC_ALGORITHM, ex);
+    }
+  }
+
+  private record CachedCredentials(byte[] hash, UserEntity user) {}
+}
@@ -0,0 +1,157 @@
+package tk.project.bankcards.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import tk.project.bankcards.config.AuthConfig;
+
+/**
+ * Ограничение попыток входа по паре почта/адрес клиента на основе token bucket. Корзины разбиты
+ * на сегменты со своими блокировками, чтобы проверки разных пользователей не конкурировали между
+ * собой. Токен списывается до проверки пароля и возвращается после успешной аутентификации.
+ * Если сегмент заполнен корзинами с израсходованными попытками, новые пары почта/адрес в нем
+ * отклоняются до восстановления корзин.
+ */
+@Slf4j
+@Component
+public class LoginThrottle {
+
+  private final int capacity;
+  private final long refillIntervalNanos;
+  private final int maxEntriesPerStripe;
+  private final Stripe[] stripes;
+  private final Counter rejectionCounter;
+
+  public LoginThrottle(AuthConfig authConfig, MeterRegistry meterRegistry) {
+    AuthConfig.Throttle config = authConfig.getThrottle();
+    this.capacity = config.getCapacity();
+    this.refillIntervalNanos = config.getRefillInterval().toNanos();
+    this.maxEntriesPerStripe = config.getMaxEntriesPerStripe();
+
+    int stripeCount =
+        config.getStripes() <= 1 ? 1 : Integer.highestOneBit(config.getStripes() - 1) << 1;
+    this.stripes = new Stripe[stripeCount];
+    for (int i = 0; i < stripeCount; i++) {
+      stripes[i] = new Stripe();
+    }
+
+    this.rejectionCounter = Counter.builder("auth.throttle.rejections").register(meterRegistry);
+  }
+
+  public boolean tryAcquire(String email, String clientAddress) {
+    String key = key(email, clientAddress);
+    Stripe stripe = stripeFor(key);
+    long now = System.nanoTime();
+
+    stripe.lock.lock();
+    try {
+      Bucket bucket = stripe.buckets.get(key);
+      if (bucket == null) {
+        if (stripe.buckets.size() >= maxEntriesPerStripe) {
+          evictIdleBuckets(stripe, now);
+        }
+        if (stripe.buckets.size() >= maxEntriesPerStripe) {
+          rejectionCounter.increment();
+          log.warn(
+              "Сегмент ограничения попыток входа заполнен, попытка для почты {} отклонена.",
+              email);
+          return false;
+        }
+        bucket = new Bucket(capacity, now);
+        stripe.buckets.put(key, bucket);
+      }
+
+      refill(bucket, now);
+      if (bucket.tokens > 0) {
+        bucket.tokens--;
+        return true;
+      }
+    } finally {
+      stripe.lock.unlock();
+    }
+
+    rejectionCounter.increment();
+    log.debug("Превышено число попыток входа для почты {} с адреса {}.", email, clientAddress);
+    return false;
+  }
+
+  public void release(String email, String clientAddress) {
+    String key = key(email, clientAddress);
+    Stripe stripe = stripeFor(key);
+
+    stripe.lock.lock();
+    try {
+      Bucket bucket = stripe.buckets.get(key);
+      if (bucket != null) {
+        bucket.tokens = Math.min(capacity, bucket.tokens + 1);
+        if (bucket.tokens == capacity) {
+          stripe.buckets.remove(key);
+        }
+      }
+    } finally {
+      stripe.lock.unlock();
+    }
+  }
+
+  public void reset() {
+    for (Stripe stripe : stripes) {
+      stripe.lock.lock();
+      try {
+        stripe.buckets.clear();
+      } finally {
+        stripe.lock.unlock();
+      }
+    }
+  }
+
+  private void refill(Bucket bucket, long now) {
+    long intervals = (now - bucket.lastRefillNanos) / refillIntervalNanos;
+    if (intervals > 0) {
+      bucket.tokens = (int) Math.min(capacity, bucket.tokens + intervals);
+      bucket.lastRefillNanos =
+          bucket.tokens == capacity
+              ? now
+              : bucket.lastRefillNanos + intervals * refillIntervalNanos;
+    }
+  }
+
+  /**
+   * Удаляются только корзины, восстановившиеся до полной емкости: удаление корзины с
+   * израсходованными попытками сбросило бы ограничение для ее пары почта/адрес.
+   */
+  private void evictIdleBuckets(Stripe stripe, long now) {
+    stripe.buckets.values().removeIf(
+        bucket -> {
+          refill(bucket, now);
+          return bucket.tokens == capacity;
+        });
+  }
+
+  private Stripe stripeFor(String key) {
+    int hash = key.hashCode();
+    return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+  }
+
+  private static String key(String email, String clientAddress) {
+    return email + '|' + clientAddress;
+  }
+
+  private static final class Stripe {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Bucket> buckets = new HashMap<>();
+  }
+
+  private static final class Bucket {
+    private int tokens;
+    private long lastRefillNanos;
+
+    private Bucket(int tokens, long lastRefillNanos) {
+      this.tokens = tokens;
+      this.lastRefillNanos = lastRefillNanos;
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package tk.project.bankcards.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tk.project.bankcards.dto.ErrorResponse;
+import tk.project.bankcards.exception.TooManyLoginAttemptsException;
+
+@RequiredArgsConstructor
+public class LoginThrottleFilter extends OncePerRequestFilter {
+
+  private static final String BASIC_PREFIX = "Basic ";
+
+  private final CredentialsCache credentialsCache;
+  private final LoginThrottle loginThrottle;
+  private final ObjectMapper objectMapper;
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    String[] credentials = basicCredentials(request.getHeader(HttpHeaders.AUTHORIZATION));
+    // Уже проверенные учетные данные не доходят до BCrypt и не расходуют попытки входа
+    if (credentials == null || credentialsCache.matches(credentials[0], credentials[1])) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    String email = credentials[0];
+    String clientAddress = request.getRemoteAddr();
+    if (!loginThrottle.tryAcquire(email, clientAddress)) {
+      ErrorResponse error =
+          new ErrorResponse(
+              TooManyLoginAttemptsException.class.getSimpleName(),
+              Instant.now(),
+              "Слишком много попыток входа, повторите запрос позже.");
+      response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+      response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+      response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+      objectMapper.writeValue(response.getOutputStream(), error);
+      return;
+    }
+
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+      if (authentication != null
+          && authentication.isAuthenticated()
+          && email.equals(authentication.getName())) {
+        loginThrottle.release(email, clientAddress);
+      }
+    }
+  }
+
+  private static String[] basicCredentials(String header) {
+    if (header == null
+        || !header.regionMatches(true, 0, BASIC_PREFIX, 0, BASIC_PREFIX.length())) {
+      return null;
+    }
+
+    String credentials;
+    try {
+      credentials =
+          new String(
+              Base64.getDecoder().decode(header.substring(BASIC_PREFIX.length()).trim()),
+              StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException ex) {
+      return null;
+    }
+
+    int separator = credentials.indexOf(':');
+    return separator < 0
+        ? null
+        : new String[] {credentials.substring(0, separator), credentials.substring(separator + 1)};
+  }
+}
@@ -0,0 +1,105 @@
+package tk.project.bankcards.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import tk.project.bankcards.config.AuthConfig;
+import tk.project.bankcards.exception.PasswordHashingUnavailableException;
+
+/**
+ * Отдельный ограниченный пул для хэширования паролей, чтобы всплески регистраций не занимали потоки
+ * Tomcat. При заполненной очереди запрос сразу отклоняется.
+ */
+@Slf4j
+@Component
+public class PasswordHashingExecutor {
+
+  private static final String METRIC_PREFIX = "password.hashing";
+
+  private final PasswordEncoder passwordEncoder;
+  private final ThreadPoolExecutor executor;
+  private final ForkJoinPool bulkPool;
+  private final Timer hashTimer;
+
+  public PasswordHashingExecutor(
+      AuthConfig authConfig, PasswordEncoder passwordEncoder, MeterRegistry meterRegistry) {
+    AuthConfig.Hashing config = authConfig.getHashing();
+    this.passwordEncoder = passwordEncoder;
+    this.executor =
+        new ThreadPoolExecutor(
+            config.getPoolSize(),
+            config.getPoolSize(),
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(config.getQueueCapacity()),
+            new CustomizableThreadFactory("password-hashing-"),
+            new ThreadPoolExecutor.AbortPolicy());
+    new ExecutorServiceMetrics(executor, METRIC_PREFIX, Tags.empty()).bindTo(meterRegistry);
+    this.bulkPool = new ForkJoinPool(config.getPoolSize());
+    new ExecutorServiceMetrics(bulkPool, METRIC_PREFIX + ".bulk", Tags.empty())
+        .bindTo(meterRegistry);
+    this.hashTimer = Timer.builder(METRIC_PREFIX + ".duration").register(meterRegistry);
+  }
+
+  public String encode(CharSequence rawPassword) {
+    Future<String> encoded;
+    try {
+      encoded = executor.submit(() -> hashTimer.record(() -> passwordEncoder.encode(rawPassword)));
+    } catch (RejectedExecutionException ex) {
+      log.warn("Очередь хэширования паролей переполнена: {} задач.", executor.getQueue().size());
+      throw new PasswordHashingUnavailableException(
+          "Сервис временно перегружен, повторите запрос позже.");
+    }
+
+    try {
+      return encoded.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      encoded.cancel(true);
+      throw new PasswordHashingUnavailableException("Хэширование пароля было прервано.");
+    } catch (ExecutionException ex) {
+      throw new IllegalStateException("Не удалось захэшировать пароль", ex.getCause());
+    }
+  }
+
+  public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+    Future<List<String>> encoded =
+        bulkPool.submit(
+            () ->
+                rawPasswords.parallelStream()
+                    .map(
+                        rawPassword ->
+                            hashTimer.record(() -> passwordEncoder.encode(rawPassword)))
+                    .toList());
+
+    try {
+      return encoded.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      encoded.cancel(true);
+      throw new PasswordHashingUnavailableException("Хэширование паролей было прервано.");
+    } catch (ExecutionException ex) {
+      throw new IllegalStateException("Не удалось захэшировать пароли", ex.getCause());
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+    bulkPool.shutdown();
+  }
+}
@@ -0,0 +1,52 @@
+package tk.project.bankcards.security;
+
+import static tk.project.bankcards.util.TransactionCallbacks.runAfterCommit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Optional;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import tk.project.bankcards.config.AuthConfig;
+import tk.project.bankcards.entity.UserEntity;
+
+@Slf4j
+@Component
+public class PrincipalCache {
+
+  private static final String CACHE_NAME = "principals";
+
+  private final Cache<String, UserEntity> cache;
+
+  public PrincipalCache(AuthConfig authConfig, MeterRegistry meterRegistry) {
+    AuthConfig.PrincipalCache config = authConfig.getPrincipalCache();
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumSize(config.getMaxSize())
+            .expireAfterWrite(config.getTtl())
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+  }
+
+  /**
+   * Загрузка выполняется внутри вычисления значения Caffeine, поэтому удаление ключа после
+   * фиксации изменений дожидается начатой загрузки. Отсутствующий пользователь не кэшируется.
+   */
+  public Optional<UserEntity> get(String email, Function<String, Optional<UserEntity>> loader) {
+    return Optional.ofNullable(cache.get(email, key -> loader.apply(key).orElse(null)));
+  }
+
+  public void invalidate(String email) {
+    cache.invalidate(email);
+    runAfterCommit(() -> cache.invalidate(email));
+    log.debug("Данные пользователя с почтой {} удалены из кэша.", email);
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+}
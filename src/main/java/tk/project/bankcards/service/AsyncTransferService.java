@@ -0,0 +1,118 @@
+package tk.project.bankcards.service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tk.project.bankcards.config.TransferConfig;
+import tk.project.bankcards.datasource.ReadYourWritesTracker;
+import tk.project.bankcards.dto.TransferDto;
+import tk.project.bankcards.dto.TransferStatusDto;
+import tk.project.bankcards.entity.TransferEntity;
+import tk.project.bankcards.entity.UserEntity;
+import tk.project.bankcards.enums.TransferStatus;
+import tk.project.bankcards.exception.BankCardTransferConflictException;
+import tk.project.bankcards.exception.TransferNotFoundException;
+import tk.project.bankcards.exception.UserNotAccessException;
+import tk.project.bankcards.mapper.TransferMapper;
+import tk.project.bankcards.repository.TransferRepository;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AsyncTransferService {
+
+  private final ReadYourWritesTracker readYourWritesTracker;
+  private final TransferConfig transferConfig;
+  private final TransferMapper transferMapper;
+  private final TransferRepository transferRepository;
+
+  public TransferStatusDto submit(TransferDto transfer, UserEntity authUser) {
+    TransferEntity transferEntity = transferMapper.toTransferEntity(transfer);
+    transferEntity.setOwner(authUser);
+    transferEntity.setStatus(TransferStatus.PENDING);
+    transferRepository.save(transferEntity);
+    readYourWritesTracker.recordWrite(authUser.getId());
+
+    log.debug("Перевод принят в обработку с id: {}.", transferEntity.getId());
+    return transferMapper.toTransferStatusDto(transferEntity);
+  }
+
+  public TransferStatusDto getStatus(UUID transferId, UserEntity authUser) {
+    TransferEntity transfer =
+        transferRepository
+            .findById(transferId)
+            .orElseThrow(
+                () ->
+                    new TransferNotFoundException(
+                        String.format("Перевод с id %s не найден", transferId)));
+
+    if (!Objects.equals(authUser.getId(), transfer.getOwner().getId())) {
+      throw new UserNotAccessException(
+          String.format(
+              "У пользователя с id %s нет доступа к переводу с id %s.",
+              authUser.getId(), transferId));
+    }
+    return transferMapper.toTransferStatusDto(transfer);
+  }
+
+  @Transactional
+  public List<TransferEntity> claimPending(int limit) {
+    List<TransferEntity> transfers = transferRepository.findPendingForUpdateSkipLocked(limit);
+    transfers.forEach(transfer -> transfer.setStatus(TransferStatus.PROCESSING));
+    return transfers;
+  }
+
+  /**
+   * Отмечает перевод выполненным в транзакции перевода. Если перевод уже возвращен в очередь,
+   * захват с версией claimedVersion потерян, и перевод откатывается.
+   */
+  @Transactional
+  public void markCompleted(UUID transferId, Long claimedVersion) {
+    if (transferRepository.updateStatus(
+            transferId, claimedVersion, TransferStatus.COMPLETED, null, Instant.now())
+        == 0) {
+      throw new BankCardTransferConflictException(
+          String.format("Перевод с id %s уже обрабатывается другим обработчиком.", transferId));
+    }
+  }
+
+  /** Сообщение об ошибке обрезается до длины колонки error_message. */
+  @Transactional
+  public void markFailed(UUID transferId, Long claimedVersion, String errorMessage) {
+    transferRepository.updateStatus(
+        transferId, claimedVersion, TransferStatus.FAILED, truncate(errorMessage), Instant.now());
+  }
+
+  /**
+   * Возвращает в очередь переводы, брошенные упавшим обработчиком. Статус COMPLETED фиксируется
+   * вместе с балансами, поэтому перевод в статусе PROCESSING еще не выполнен.
+   */
+  @Transactional
+  @Scheduled(
+      initialDelayString = "${app.transfer.async.recovery-interval:PT1M}",
+      fixedDelayString = "${app.transfer.async.recovery-interval:PT1M}")
+  public void recoverStaleProcessing() {
+    Instant now = Instant.now();
+    int recovered =
+        transferRepository.updateStatusUpdatedBefore(
+            TransferStatus.PROCESSING,
+            now.minus(transferConfig.getAsync().getProcessingTimeout()),
+            TransferStatus.PENDING,
+            now);
+    if (recovered > 0) {
+      log.warn("Возвращено в очередь зависших переводов: {}.", recovered);
+    }
+  }
+
+  private static String truncate(String errorMessage) {
+    return errorMessage == null || errorMessage.length() <= TransferEntity.ERROR_MESSAGE_LENGTH
+        ? errorMessage
+        : errorMessage.substring(0, TransferEntity.ERROR_MESSAGE_LENGTH);
+  }
+}
@@ -0,0 +1,114 @@
+package tk.project.bankcards.service;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import tk.project.bankcards.config.TransferConfig;
+import tk.project.bankcards.entity.TransferEntity;
+import tk.project.bankcards.mapper.TransferMapper;
+
+/**
+ * Обработчики асинхронных переводов. Каждый поток забирает пачку переводов в статусе PENDING через
+ * FOR UPDATE SKIP LOCKED, поэтому потоки не ждут друг друга, и выполняет их через BankCardService.
+ * Статус COMPLETED записывается в транзакции перевода. Обработчики работают на виртуальных
+ * потоках, которые не занимают поток ОС во время ожидания БД. Обработчики запускаются после
+ * инициализации контекста и останавливаются при его закрытии.
+ */
+@Slf4j
+@Component
+public class AsyncTransferWorker implements SmartLifecycle {
+
+  private final AsyncTransferService asyncTransferService;
+  private final BankCardService bankCardService;
+  private final TransferConfig.Async config;
+  private final TransferMapper transferMapper;
+  private final ExecutorService executor;
+  private volatile boolean running;
+
+  public AsyncTransferWorker(
+      AsyncTransferService asyncTransferService,
+      BankCardService bankCardService,
+      TransferConfig transferConfig,
+      TransferMapper transferMapper) {
+    this.asyncTransferService = asyncTransferService;
+    this.bankCardService = bankCardService;
+    this.config = transferConfig.getAsync();
+    this.transferMapper = transferMapper;
+    this.executor =
+        Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("transfer-worker-", 0).factory());
+  }
+
+  @Override
+  public void start() {
+    if (config.isEnabled()) {
+      for (int i = 0; i < config.getWorkers(); i++) {
+        executor.execute(this::run);
+      }
+    }
+    running = true;
+  }
+
+  @Override
+  public void stop() {
+    executor.shutdownNow();
+    try {
+      if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+        log.warn("Обработчики асинхронных переводов не остановились за отведенное время.");
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } finally {
+      running = false;
+    }
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void run() {
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        List<TransferEntity> transfers = asyncTransferService.claimPending(config.getBatchSize());
+        if (transfers.isEmpty()) {
+          TimeUnit.MILLISECONDS.sleep(config.getPollInterval().toMillis());
+        }
+        transfers.forEach(this::execute);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      } catch (RuntimeException ex) {
+        log.warn("Ошибка при получении переводов в статусе PENDING.", ex);
+      }
+    }
+  }
+
+  private void execute(TransferEntity transfer) {
+    try {
+      bankCardService.transferBetweenOwnerCard(
+          transferMapper.toTransferDto(transfer),
+          transfer.getOwner(),
+          () -> asyncTransferService.markCompleted(transfer.getId(), transfer.getVersion()));
+    } catch (RuntimeException ex) {
+      log.debug("Перевод с id {} отклонен: {}", transfer.getId(), ex.getMessage());
+      markFailed(transfer, ex.getMessage());
+    }
+  }
+
+  /**
+   * Ошибка записи статуса FAILED не прерывает обработку остальных переводов пачки. Перевод
+   * остается в статусе PROCESSING и возвращается в очередь по processing-timeout.
+   */
+  private void markFailed(TransferEntity transfer, String errorMessage) {
+    try {
+      asyncTransferService.markFailed(transfer.getId(), transfer.getVersion(), errorMessage);
+    } catch (RuntimeException ex) {
+      log.warn("Не удалось отметить перевод с id {} как FAILED.", transfer.getId(), ex);
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package tk.project.bankcards.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import tk.project.bankcards.config.AuthConfig;
+import tk.project.bankcards.dto.AccessTokenDto;
+import tk.project.bankcards.dto.LoginDto;
+import tk.project.bankcards.entity.UserEntity;
+import tk.project.bankcards.exception.TooManyLoginAttemptsException;
+import tk.project.bankcards.security.AccessTokenService;
+import tk.project.bankcards.security.LoginThrottle;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AuthService {
+
+  private final AccessTokenService accessTokenService;
+  private final AuthConfig authConfig;
+  private final AuthenticationManager authenticationManager;
+  private final LoginThrottle loginThrottle;
+
+  public AccessTokenDto issueToken(LoginDto login, String clientAddress) {
+    boolean throttled = authConfig.getThrottle().isEnabled();
+    if (throttled && !loginThrottle.tryAcquire(login.email(), clientAddress)) {
+      throw new TooManyLoginAttemptsException(
+          "Слишком много попыток входа, повторите запрос позже.");
+    }
+
+    Authentication authentication =
+        authenticationManager.authenticate(
+            UsernamePasswordAuthenticationToken.unauthenticated(login.email(), login.password()));
+    if (throttled) {
+      loginThrottle.release(login.email(), clientAddress);
+    }
+    UserEntity user = (UserEntity) authentication.getPrincipal();
+
+    AccessTokenDto accessToken = accessTokenService.issue(user);
+    log.debug(
+        "Выпущен токен доступа для пользователя с id {}, действителен до {}.",
+        user.getId(),
+        accessToken.expiresAt());
+    return accessToken;
+  }
+}
@@ -0,0 +1,70 @@
+package tk.project.bankcards.service;
+
+import static tk.project.bankcards.util.TransactionCallbacks.runAfterCommit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import tk.project.bankcards.config.BankCardCacheConfig;
+import tk.project.bankcards.dto.BankCardInfoDto;
+import tk.project.bankcards.util.ETagged;
+
+/**
+ * Кэш информации о банковских картах по id. Загрузка выполняется внутри вычисления значения
+ * Caffeine, поэтому удаление ключа дожидается загрузки, начатой до фиксации изменений, и
+ * устаревшее значение не остается в кэше. Вместе с картой хранится ее ETag, поэтому запрос с
+ * совпадающим If-None-Match обслуживается без обращения к БД.
+ */
+@Slf4j
+@Component
+public class BankCardCache {
+
+  private static final String CACHE_NAME = "bank-cards";
+
+  private final Cache<UUID, ETagged<BankCardInfoDto>> cache;
+
+  public BankCardCache(BankCardCacheConfig config, MeterRegistry meterRegistry) {
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumSize(config.getMaxSize())
+            .expireAfterWrite(config.getTtl())
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+        .tag("cache", CACHE_NAME)
+        .register(meterRegistry);
+  }
+
+  public ETagged<BankCardInfoDto> get(
+      UUID cardId, Function<UUID, ETagged<BankCardInfoDto>> loader) {
+    return cache.get(cardId, loader);
+  }
+
+  /** Удаляет карты из кэша сразу и повторно после фиксации текущей транзакции. */
+  public void invalidate(Collection<UUID> cardIds) {
+    cache.invalidateAll(cardIds);
+    runAfterCommit(() -> cache.invalidateAll(cardIds));
+    log.debug("Банковские карты с id {} удалены из кэша.", cardIds);
+  }
+
+  /** Данные владельца входят в информацию о карте, поэтому его карты удаляются из кэша. */
+  public void invalidateByOwnerId(UUID ownerId) {
+    Runnable action =
+        () -> cache.asMap().values().removeIf(card -> ownerId.equals(card.value().owner().id()));
+    action.run();
+    runAfterCommit(action);
+    log.debug("Банковские карты пользователя с id {} удалены из кэша.", ownerId);
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+}
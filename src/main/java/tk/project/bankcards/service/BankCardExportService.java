@@ -0,0 +1,141 @@
+package tk.project.bankcards.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.GZIPOutputStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tk.project.bankcards.config.ExportConfig;
+import tk.project.bankcards.entity.Money;
+import tk.project.bankcards.enums.ExportFormat;
+import tk.project.bankcards.mapper.BankCardMapper;
+
+/**
+ * Выгрузка всех банковских карт одним запросом в read-only транзакции. Строки читаются
+ * forward-only курсором порциями по fetch size и сразу пишутся в поток ответа, поэтому расход
+ * памяти не зависит от количества карт. NDJSON пишется потоковым JsonGenerator из ObjectMapper
+ * приложения.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BankCardExportService {
+
+  private static final String SELECT_CARDS =
+      """
+      SELECT id, number, owner_id, expiry_date, status, balance
+      FROM bank_cards
+      ORDER BY number
+      """;
+  private static final String CSV_HEADER = "id,number,ownerId,expiryDate,status,balance\n";
+  private static final DateTimeFormatter EXPIRY_DATE_FORMAT =
+      DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+  private final BankCardMapper bankCardMapper;
+  private final ExportConfig exportConfig;
+  private final JdbcTemplate jdbcTemplate;
+  private final ObjectMapper objectMapper;
+
+  @Transactional(readOnly = true)
+  public void export(ExportFormat format, boolean gzip, OutputStream outputStream)
+      throws IOException {
+    OutputStream target =
+        gzip ? new GZIPOutputStream(outputStream, exportConfig.getBufferSize()) : outputStream;
+    Writer writer =
+        new BufferedWriter(
+            new OutputStreamWriter(target, StandardCharsets.UTF_8), exportConfig.getBufferSize());
+    JsonGenerator generator = format == ExportFormat.NDJSON ? createGenerator(writer) : null;
+    if (format == ExportFormat.CSV) {
+      writer.write(CSV_HEADER);
+    }
+
+    long[] rows = new long[1];
+    jdbcTemplate.query(
+        connection -> {
+          PreparedStatement statement =
+              connection.prepareStatement(
+                  SELECT_CARDS, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+          statement.setFetchSize(exportConfig.getFetchSize());
+          return statement;
+        },
+        resultSet -> {
+          try {
+            if (generator == null) {
+              writeCsvRow(resultSet, writer);
+            } else {
+              writeJsonRow(resultSet, generator);
+            }
+          } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+          }
+          rows[0]++;
+        });
+
+    if (generator != null) {
+      generator.flush();
+    }
+    writer.flush();
+    if (target instanceof GZIPOutputStream gzipOutputStream) {
+      gzipOutputStream.finish();
+    }
+    log.debug("Выгружено банковских карт: {}.", rows[0]);
+  }
+
+  /** Генератор пишет в тот же буферизованный поток, строки NDJSON разделяются переводом строки. */
+  private JsonGenerator createGenerator(Writer writer) throws IOException {
+    JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    generator.setRootValueSeparator(null);
+    return generator;
+  }
+
+  private void writeCsvRow(ResultSet resultSet, Writer writer) throws SQLException, IOException {
+    writer.write(
+        String.join(
+            ",",
+            resultSet.getString("id"),
+            bankCardMapper.mapNumber(resultSet.getLong("number")),
+            resultSet.getString("owner_id"),
+            expiryDate(resultSet),
+            resultSet.getString("status"),
+            balance(resultSet)));
+    writer.write('\n');
+  }
+
+  private void writeJsonRow(ResultSet resultSet, JsonGenerator generator)
+      throws SQLException, IOException {
+    generator.writeStartObject();
+    generator.writeStringField("id", resultSet.getString("id"));
+    generator.writeStringField("number", bankCardMapper.mapNumber(resultSet.getLong("number")));
+    generator.writeStringField("ownerId", resultSet.getString("owner_id"));
+    generator.writeStringField("expiryDate", expiryDate(resultSet));
+    generator.writeStringField("status", resultSet.getString("status"));
+    generator.writeFieldName("balance");
+    generator.writeNumber(balance(resultSet));
+    generator.writeEndObject();
+    generator.writeRaw('\n');
+  }
+
+  private static String expiryDate(ResultSet resultSet) throws SQLException {
+    return EXPIRY_DATE_FORMAT.format(resultSet.getObject("expiry_date", LocalDate.class));
+  }
+
+  private static String balance(ResultSet resultSet) throws SQLException {
+    return new Money(resultSet.getLong("balance")).toBigDecimal().toPlainString();
+  }
+}
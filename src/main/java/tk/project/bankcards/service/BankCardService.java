@@ -2,38 +2,77 @@ package tk.project.bankcards.service;
 
 import static tk.project.bankcards.util.BankCardStatusChecker.checkBankCardIsActive;
 import static tk.project.bankcards.util.OwnershipChecker.checkOwnership;
+import static tk.project.bankcards.util.TransferChecker.checkTransfer;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import tk.project.bankcards.config.TransferConfig;
+import tk.project.bankcards.datasource.ReadYourWritesTracker;
 import tk.project.bankcards.dto.BankCardCreateDto;
 import tk.project.bankcards.dto.BankCardInfoDto;
+import tk.project.bankcards.dto.BankCardPageDto;
 import tk.project.bankcards.dto.BankCardShortInfoDto;
+import tk.project.bankcards.dto.BankCardSummaryDto;
 import tk.project.bankcards.dto.TransferDto;
 import tk.project.bankcards.entity.BankCardEntity;
+import tk.project.bankcards.entity.Money;
 import tk.project.bankcards.entity.UserEntity;
 import tk.project.bankcards.enums.BankCardStatus;
 import tk.project.bankcards.exception.BankCardConflictException;
 import tk.project.bankcards.exception.BankCardNotFoundException;
-import tk.project.bankcards.exception.NotEnoughBankCardBalanceException;
+import tk.project.bankcards.exception.BankCardTransferConflictException;
 import tk.project.bankcards.exception.UserNotFoundException;
 import tk.project.bankcards.mapper.BankCardMapper;
 import tk.project.bankcards.repository.BankCardRepository;
+import tk.project.bankcards.repository.BankCardShortInfoProjection;
+import tk.project.bankcards.repository.BankCardStatusSummaryProjection;
+import tk.project.bankcards.repository.BankCardVersionProjection;
 import tk.project.bankcards.repository.UserRepository;
+import tk.project.bankcards.util.ETagged;
+import tk.project.bankcards.util.ETags;
+import tk.project.bankcards.util.KeysetCursor;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class BankCardService {
 
+  private static final int MAX_PAGE_SIZE = 100;
+
+  private final BankCardCache bankCardCache;
+  private final BankCardSummaryCache bankCardSummaryCache;
   private final BankCardMapper bankCardMapper;
   private final BankCardRepository bankCardRepository;
+  private final LedgerService ledgerService;
+  private final MeterRegistry meterRegistry;
+  private final ReadYourWritesTracker readYourWritesTracker;
+  private final TransactionTemplate transactionTemplate;
+  private final TransferConfig transferConfig;
+  private final TransferGroupCommitter transferGroupCommitter;
+  private final TransferSequencer transferSequencer;
   private final UserRepository userRepository;
 
+  @Transactional
   public BankCardInfoDto create(BankCardCreateDto newCard) {
     if (bankCardRepository.findByNumber(newCard.number()).isPresent()) {
       throw new BankCardConflictException(
@@ -44,6 +83,7 @@ public class BankCardService {
     bankCardEntity.setOwner(getUserById(newCard.ownerId()));
     bankCardEntity.setStatus(BankCardStatus.ACTIVE);
     bankCardRepository.save(bankCardEntity);
+    bankCardSummaryCache.invalidate(newCard.ownerId());
 
     log.debug(
         "Банковская карта c номером {} и владельцем {} сохранена с id: {}.",
@@ -60,6 +100,8 @@ public class BankCardService {
 
     existingBankCard.setStatus(BankCardStatus.BLOCKED);
     bankCardRepository.save(existingBankCard);
+    bankCardCache.invalidate(List.of(cardId));
+    bankCardSummaryCache.invalidate(existingBankCard.getOwner().getId());
 
     log.debug(
         "Банковская карта с id: {}, c номером {} и владельцем {} заблокирована.",
@@ -74,6 +116,8 @@ public class BankCardService {
     BankCardEntity existingBankCard = getCardByIdForUpdate(cardId);
     existingBankCard.setStatus(BankCardStatus.ACTIVE);
     bankCardRepository.save(existingBankCard);
+    bankCardCache.invalidate(List.of(cardId));
+    bankCardSummaryCache.invalidate(existingBankCard.getOwner().getId());
 
     log.debug(
         "Банковская карта с id: {}, c номером {} и владельцем {} активирована.",
@@ -83,62 +127,120 @@ public class BankCardService {
     return bankCardMapper.toBankCardInfoDto(existingBankCard);
   }
 
-  @Transactional
   public void transferBetweenOwnerCard(TransferDto transfer, UserEntity authUser) {
-    BankCardEntity fromBankCard = getCardByIdForUpdate(transfer.fromCardId());
-    checkOwnership(authUser, fromBankCard);
-    checkBankCardIsActive(fromBankCard);
+    transferBetweenOwnerCard(transfer, authUser, () -> {});
+  }
 
-    if (fromBankCard.getBalance().compareTo(transfer.amount()) < 0) {
-      throw new NotEnoughBankCardBalanceException(
-          String.format(
-              "На счету с id %s недостаточно средств для перевода.", fromBankCard.getId()));
+  /**
+   * Перевод между картами пользователя. onTransferred выполняется в транзакции перевода, поэтому
+   * записанный им результат фиксируется вместе с балансами или откатывается вместе с ними.
+   */
+  public void transferBetweenOwnerCard(
+      TransferDto transfer, UserEntity authUser, Runnable onTransferred) {
+    try {
+      switch (transferConfig.getMode()) {
+        case PESSIMISTIC ->
+            transactionTemplate.executeWithoutResult(
+                status -> {
+                  transferPessimistic(transfer, authUser);
+                  onTransferred.run();
+                });
+        case OPTIMISTIC -> transferOptimistic(transfer, authUser, onTransferred);
+        case ATOMIC ->
+            transactionTemplate.executeWithoutResult(
+                status -> {
+                  transferAtomic(transfer, authUser);
+                  onTransferred.run();
+                });
+        case SEQUENCED -> transferSequencer.transfer(transfer, authUser, onTransferred);
+        case GROUP_COMMIT -> transferGroupCommitter.transfer(transfer, authUser, onTransferred);
+      }
+    } finally {
+      // Исход перевода может быть неизвестен вызывающему коду, поэтому кэш сбрасывается всегда
+      bankCardCache.invalidate(List.of(transfer.fromCardId(), transfer.toCardId()));
+      bankCardSummaryCache.invalidate(authUser.getId());
+      readYourWritesTracker.recordWrite(authUser.getId());
     }
 
-    BankCardEntity toBankCard = getCardByIdForUpdate(transfer.toCardId());
-    checkOwnership(authUser, toBankCard);
-    checkBankCardIsActive(toBankCard);
-
-    fromBankCard.setBalance(fromBankCard.getBalance().subtract(transfer.amount()));
-    toBankCard.setBalance(toBankCard.getBalance().add(transfer.amount()));
-
-    bankCardRepository.save(fromBankCard);
-    bankCardRepository.save(toBankCard);
-
     log.debug(
         "Перевод средств с банковской карты с id {}, на карту с id {} в размере {}.",
-        fromBankCard.getId(),
-        toBankCard.getId(),
+        transfer.fromCardId(),
+        transfer.toCardId(),
         transfer.amount());
   }
 
+  @Transactional(readOnly = true)
   public List<BankCardShortInfoDto> findAll(Pageable pageable) {
-    List<BankCardEntity> bankCards = bankCardRepository.findAll(pageable).stream().toList();
+    List<BankCardShortInfoProjection> bankCards = bankCardRepository.findAllShortInfo(pageable);
     log.debug("Найден список банковских карт.");
-    return bankCardMapper.toBankCardShortInfoDto(bankCards);
+    return bankCardMapper.fromShortInfoProjections(bankCards);
   }
 
-  public List<BankCardShortInfoDto> findAllByUserId(UUID userId, Pageable pageable) {
-    List<BankCardEntity> bankCards = bankCardRepository.findAllByOwnerId(userId, pageable);
+  @Transactional(readOnly = true)
+  public ETagged<List<BankCardShortInfoDto>> findAllByUserId(UUID userId, Pageable pageable) {
+    List<BankCardShortInfoProjection> bankCards =
+        bankCardRepository.findAllShortInfoByOwnerId(userId, pageable);
     log.debug("Найден список банковских карт пользователя с id {}.", userId);
-    return bankCardMapper.toBankCardShortInfoDto(bankCards);
+    return new ETagged<>(
+        bankCardMapper.fromShortInfoProjections(bankCards),
+        pageETag(pageable, bankCards.stream().map(BankCardShortInfoProjection::toVersion)));
+  }
+
+  /** ETag страницы карт пользователя по id и версиям карт без выборки остальных колонок. */
+  @Transactional(readOnly = true)
+  public String getETagByUserId(UUID userId, Pageable pageable) {
+    return pageETag(
+        pageable, bankCardRepository.findAllVersionsByOwnerId(userId, pageable).stream());
+  }
+
+  @Transactional(readOnly = true)
+  public BankCardPageDto findAll(String cursor, int size) {
+    int pageSize = toPageSize(size);
+    List<BankCardShortInfoProjection> bankCards =
+        cursor == null
+            ? bankCardRepository.findAllShortInfo(Limit.of(pageSize + 1))
+            : findAllAfter(KeysetCursor.decode(cursor), pageSize);
+    log.debug("Найдена страница банковских карт.");
+    return toBankCardPage(bankCards, pageSize, BankCardShortInfoProjection::number);
+  }
+
+  @Transactional(readOnly = true)
+  public BankCardPageDto findAllByUserId(UUID userId, String cursor, int size) {
+    int pageSize = toPageSize(size);
+    List<BankCardShortInfoProjection> bankCards =
+        cursor == null
+            ? bankCardRepository.findAllShortInfoByOwnerId(userId, Limit.of(pageSize + 1))
+            : findAllByOwnerIdAfter(userId, KeysetCursor.decode(cursor), pageSize);
+    log.debug("Найдена страница банковских карт пользователя с id {}.", userId);
+    return toBankCardPage(bankCards, pageSize, card -> card.balance().minorUnits());
   }
 
-  public BankCardInfoDto getById(UUID cardId, UserEntity authUser) {
-    BankCardEntity foundBankCard = getCardById(cardId);
-    checkOwnership(authUser, foundBankCard);
+  public ETagged<BankCardInfoDto> getById(UUID cardId, UserEntity authUser) {
+    ETagged<BankCardInfoDto> foundBankCard =
+        bankCardCache.get(cardId, id -> transactionTemplate.execute(status -> loadTaggedCard(id)));
+    checkOwnership(authUser, foundBankCard.value());
 
     log.debug(
-        "Найдена банковская карта с id {}, c номером {} и владельцем {}.",
-        foundBankCard.getId(),
-        foundBankCard.getNumber(),
-        foundBankCard.getOwner().getId());
-    return bankCardMapper.toBankCardInfoDto(foundBankCard);
+        "Найдена банковская карта с id {} и владельцем {}.",
+        foundBankCard.value().id(),
+        foundBankCard.value().owner().id());
+    return foundBankCard;
   }
 
+  public BankCardSummaryDto getSummaryByUserId(UUID userId) {
+    BankCardSummaryDto summary =
+        bankCardSummaryCache.get(
+            userId, id -> transactionTemplate.execute(status -> summarizeByOwnerId(id)));
+    log.debug("Найдена сводная информация о банковских картах пользователя с id {}.", userId);
+    return summary;
+  }
+
+  @Transactional
   public BankCardInfoDto deleteById(UUID cardId) {
     BankCardEntity existingBankCard = getCardById(cardId);
     bankCardRepository.delete(existingBankCard);
+    bankCardCache.invalidate(List.of(cardId));
+    bankCardSummaryCache.invalidate(existingBankCard.getOwner().getId());
 
     log.debug(
         "Банковская карта с id {}, c номером {} и владельцем {} удалена.",
@@ -157,6 +259,190 @@ public class BankCardService {
                     String.format("Банковская карта с id %s не найдена", cardId)));
   }
 
+  private void transferPessimistic(TransferDto transfer, UserEntity authUser) {
+    Map<UUID, BankCardEntity> lockedCards =
+        toCardsById(
+            bankCardRepository.findAllByIdInForUpdate(transferCardIds(transfer)));
+    applyTransfer(lockedCards, transfer, authUser);
+    recordInLedger(transfer);
+  }
+
+  private void transferOptimistic(
+      TransferDto transfer, UserEntity authUser, Runnable onTransferred) {
+    TransferConfig.Optimistic config = transferConfig.getOptimistic();
+    for (int attempt = 1; ; attempt++) {
+      try {
+        transactionTemplate.executeWithoutResult(
+            status -> {
+              Map<UUID, BankCardEntity> cards =
+                  toCardsById(bankCardRepository.findAllById(transferCardIds(transfer)));
+              applyTransfer(cards, transfer, authUser);
+              recordInLedger(transfer);
+              onTransferred.run();
+            });
+        return;
+      } catch (OptimisticLockingFailureException ex) {
+        if (attempt >= config.getMaxAttempts()) {
+          meterRegistry.counter("transfer.optimistic.conflicts").increment();
+          throw new BankCardTransferConflictException(
+              String.format(
+                  "Перевод с банковской карты с id %s не выполнен из-за конкурентных изменений.",
+                  transfer.fromCardId()));
+        }
+        meterRegistry.counter("transfer.optimistic.retries").increment();
+        log.debug("Конфликт версий при переводе, попытка {} будет повторена.", attempt);
+        backoff(attempt, config);
+      }
+    }
+  }
+
+  private void transferAtomic(TransferDto transfer, UserEntity authUser) {
+    boolean transferred;
+    // Встречные переводы обновляют строки в одном порядке, поэтому не блокируют друг друга
+    if (transfer.fromCardId().compareTo(transfer.toCardId()) <= 0) {
+      transferred = debit(transfer, authUser) && credit(transfer, authUser);
+    } else {
+      transferred = credit(transfer, authUser) && debit(transfer, authUser);
+    }
+
+    if (!transferred) {
+      Map<UUID, BankCardEntity> cards =
+          toCardsById(bankCardRepository.findAllById(transferCardIds(transfer)));
+      checkTransfer(cards, transfer, authUser);
+      throw new BankCardTransferConflictException(
+          String.format(
+              "Перевод с банковской карты с id %s не выполнен из-за конкурентных изменений.",
+              transfer.fromCardId()));
+    }
+    recordInLedger(transfer);
+  }
+
+  private void recordInLedger(TransferDto transfer) {
+    if (transferConfig.isLedgerEnabled()) {
+      ledgerService.recordTransfer(transfer);
+    }
+  }
+
+  private boolean debit(TransferDto transfer, UserEntity authUser) {
+    return bankCardRepository.debitIfAllowed(
+            transfer.fromCardId(), authUser.getId(), Money.of(transfer.amount()).minorUnits())
+        > 0;
+  }
+
+  private boolean credit(TransferDto transfer, UserEntity authUser) {
+    return bankCardRepository.creditIfAllowed(
+            transfer.toCardId(), authUser.getId(), Money.of(transfer.amount()).minorUnits())
+        > 0;
+  }
+
+  private List<BankCardShortInfoProjection> findAllAfter(KeysetCursor cursor, int pageSize) {
+    return bankCardRepository.findAllShortInfoAfter(cursor.sortKey(), Limit.of(pageSize + 1));
+  }
+
+  private List<BankCardShortInfoProjection> findAllByOwnerIdAfter(
+      UUID userId, KeysetCursor cursor, int pageSize) {
+    return bankCardRepository.findAllShortInfoByOwnerIdAfter(
+        userId, new Money(cursor.sortKey()), cursor.id(), Limit.of(pageSize + 1));
+  }
+
+  private BankCardPageDto toBankCardPage(
+      List<BankCardShortInfoProjection> bankCards,
+      int pageSize,
+      ToLongFunction<BankCardShortInfoProjection> sortKey) {
+    if (bankCards.size() <= pageSize) {
+      return new BankCardPageDto(bankCardMapper.fromShortInfoProjections(bankCards), null);
+    }
+    List<BankCardShortInfoProjection> page = bankCards.subList(0, pageSize);
+    BankCardShortInfoProjection last = page.get(pageSize - 1);
+    return new BankCardPageDto(
+        bankCardMapper.fromShortInfoProjections(page),
+        new KeysetCursor(sortKey.applyAsLong(last), last.id()).encode());
+  }
+
+  private static int toPageSize(int size) {
+    return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+  }
+
+  private void applyTransfer(
+      Map<UUID, BankCardEntity> cards, TransferDto transfer, UserEntity authUser) {
+    checkTransfer(cards, transfer, authUser);
+
+    BankCardEntity fromBankCard = cards.get(transfer.fromCardId());
+    BankCardEntity toBankCard = cards.get(transfer.toCardId());
+    Money amount = Money.of(transfer.amount());
+    fromBankCard.setBalance(fromBankCard.getBalance().minus(amount));
+    toBankCard.setBalance(toBankCard.getBalance().plus(amount));
+
+    bankCardRepository.save(fromBankCard);
+    bankCardRepository.save(toBankCard);
+  }
+
+  private static void backoff(int attempt, TransferConfig.Optimistic config) {
+    long maxDelay =
+        Math.min(
+            config.getMaxBackoff().toNanos(),
+            config.getInitialBackoff().toNanos() << Math.min(attempt - 1, 20));
+    long delay = ThreadLocalRandom.current().nextLong(maxDelay / 2, maxDelay + 1);
+    try {
+      TimeUnit.NANOSECONDS.sleep(delay);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new BankCardTransferConflictException("Повтор перевода был прерван.");
+    }
+  }
+
+  private static Set<UUID> transferCardIds(TransferDto transfer) {
+    return Stream.of(transfer.fromCardId(), transfer.toCardId()).collect(Collectors.toSet());
+  }
+
+  private static Map<UUID, BankCardEntity> toCardsById(List<BankCardEntity> cards) {
+    return cards.stream().collect(Collectors.toMap(BankCardEntity::getId, Function.identity()));
+  }
+
+  /**
+   * Время изменения владельца входит в тег, так как его данные есть в ответе. Версия нужна, если
+   * карта изменилась несколько раз в пределах точности времени изменения. Загрузки в кэш
+   * выполняются в транзакции на запись, то есть на основном пуле: отставшая реплика не должна
+   * попасть в кэш на все время жизни записи.
+   */
+  private ETagged<BankCardInfoDto> loadTaggedCard(UUID cardId) {
+    BankCardEntity bankCard = getCardById(cardId);
+    return new ETagged<>(
+        bankCardMapper.toBankCardInfoDto(bankCard),
+        ETags.of(
+            bankCard.getId(),
+            bankCard.getVersion(),
+            bankCard.getUpdateDateTime(),
+            bankCard.getOwner().getUpdateDateTime()));
+  }
+
+  private BankCardSummaryDto summarizeByOwnerId(UUID ownerId) {
+    Map<BankCardStatus, Long> cardCountByStatus = new EnumMap<>(BankCardStatus.class);
+    Arrays.stream(BankCardStatus.values()).forEach(status -> cardCountByStatus.put(status, 0L));
+    long cardCount = 0;
+    Money totalBalance = Money.ZERO;
+    LocalDate nextExpiryDate = null;
+    for (BankCardStatusSummaryProjection statusSummary :
+        bankCardRepository.summarizeByOwnerId(ownerId)) {
+      cardCountByStatus.put(statusSummary.status(), statusSummary.cardCount());
+      cardCount += statusSummary.cardCount();
+      totalBalance = totalBalance.plus(new Money(statusSummary.balanceMinorUnits()));
+      if (statusSummary.status() == BankCardStatus.ACTIVE) {
+        nextExpiryDate = statusSummary.minExpiryDate();
+      }
+    }
+    return new BankCardSummaryDto(
+        cardCount, totalBalance.toBigDecimal(), cardCountByStatus, nextExpiryDate);
+  }
+
+  private static String pageETag(Pageable pageable, Stream<BankCardVersionProjection> bankCards) {
+    return ETags.of(
+        Stream.concat(
+            Stream.of(pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort()),
+            bankCards.flatMap(
+                card -> Stream.of(card.id(), card.version(), card.updateDateTime()))));
+  }
+
   private BankCardEntity getCardById(UUID cardId) {
     return bankCardRepository
         .findById(cardId)
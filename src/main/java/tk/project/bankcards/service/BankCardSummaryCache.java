@@ -0,0 +1,55 @@
+package tk.project.bankcards.service;
+
+import static tk.project.bankcards.util.TransactionCallbacks.runAfterCommit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.UUID;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import tk.project.bankcards.config.BankCardSummaryCacheConfig;
+import tk.project.bankcards.dto.BankCardSummaryDto;
+
+/**
+ * Кэш сводной информации о картах по id пользователя. Удаление выполняется так же, как в
+ * {@link BankCardCache}: сразу и после фиксации транзакции, изменившей карты пользователя.
+ */
+@Slf4j
+@Component
+public class BankCardSummaryCache {
+
+  private static final String CACHE_NAME = "bank-card-summaries";
+
+  private final Cache<UUID, BankCardSummaryDto> cache;
+
+  public BankCardSummaryCache(BankCardSummaryCacheConfig config, MeterRegistry meterRegistry) {
+    this.cache =
+        Caffeine.newBuilder()
+            .maximumSize(config.getMaxSize())
+            .expireAfterWrite(config.getTtl())
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+        .tag("cache", CACHE_NAME)
+        .register(meterRegistry);
+  }
+
+  public BankCardSummaryDto get(UUID ownerId, Function<UUID, BankCardSummaryDto> loader) {
+    return cache.get(ownerId, loader);
+  }
+
+  public void invalidate(UUID ownerId) {
+    cache.invalidate(ownerId);
+    runAfterCommit(() -> cache.invalidate(ownerId));
+    log.debug("Сводная информация о картах пользователя с id {} удалена из кэша.", ownerId);
+  }
+
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+}
@@ -0,0 +1,196 @@
+package tk.project.bankcards.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import tk.project.bankcards.config.IdempotencyConfig;
+import tk.project.bankcards.dto.TransferDto;
+import tk.project.bankcards.entity.IdempotencyKeyEntity;
+import tk.project.bankcards.entity.Money;
+import tk.project.bankcards.enums.IdempotencyKeyStatus;
+import tk.project.bankcards.exception.IdempotencyKeyConflictException;
+import tk.project.bankcards.repository.IdempotencyKeyRepository;
+
+/**
+ * Однократное выполнение запросов с заголовком Idempotency-Key. Ключ резервируется уникальной
+ * записью до выполнения запроса и отмечается завершенным в транзакции перевода, повтор
+ * завершенного запроса возвращает успех без обращения к картам. Недавние ключи дополнительно
+ * хранятся в памяти.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+  private static final String CACHE_NAME = "idempotency-keys";
+
+  private final IdempotencyConfig idempotencyConfig;
+  private final IdempotencyKeyRepository idempotencyKeyRepository;
+  private final TransactionTemplate newTransactionTemplate;
+  private final Cache<String, String> completedKeys;
+
+  public IdempotencyService(
+      IdempotencyConfig idempotencyConfig,
+      IdempotencyKeyRepository idempotencyKeyRepository,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry) {
+    this.idempotencyConfig = idempotencyConfig;
+    this.idempotencyKeyRepository = idempotencyKeyRepository;
+    this.newTransactionTemplate = new TransactionTemplate(transactionManager);
+    this.newTransactionTemplate.setPropagationBehavior(
+        TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    this.completedKeys =
+        Caffeine.newBuilder()
+            .maximumSize(idempotencyConfig.getCacheMaxSize())
+            .expireAfterWrite(idempotencyConfig.getTtl())
+            .recordStats()
+            .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, completedKeys, CACHE_NAME);
+  }
+
+  /**
+   * Выполняет перевод однократно. Действие получает отметку о завершении, которую должно выполнить
+   * в транзакции перевода: ключ становится COMPLETED только вместе с изменением балансов.
+   */
+  public void execute(
+      UUID userId, String idempotencyKey, TransferDto transfer, Consumer<Runnable> action) {
+    String keyHash = sha256(idempotencyKey);
+    String requestHash = requestHash(transfer);
+    String cacheKey = userId + ":" + keyHash;
+
+    String completedRequestHash = completedKeys.getIfPresent(cacheKey);
+    if (completedRequestHash != null) {
+      checkSameRequest(completedRequestHash, requestHash);
+      log.debug("Запрос с ключом идемпотентности уже выполнен, повтор пропущен.");
+      return;
+    }
+
+    UUID reservationId = reserve(userId, keyHash, requestHash);
+    if (reservationId != null) {
+      try {
+        action.accept(() -> markCompleted(reservationId));
+      } catch (RuntimeException ex) {
+        newTransactionTemplate.executeWithoutResult(
+            status ->
+                idempotencyKeyRepository.deleteByIdAndStatus(
+                    reservationId, IdempotencyKeyStatus.IN_PROGRESS));
+        throw ex;
+      }
+    }
+    completedKeys.put(cacheKey, requestHash);
+  }
+
+  @Scheduled(
+      initialDelayString = "${app.idempotency.cleanup-interval:PT10M}",
+      fixedDelayString = "${app.idempotency.cleanup-interval:PT10M}")
+  public void deleteExpiredKeys() {
+    Instant before = Instant.now().minus(idempotencyConfig.getTtl());
+    Integer deleted =
+        newTransactionTemplate.execute(
+            status -> idempotencyKeyRepository.deleteAllCreatedBefore(before));
+    log.debug("Удалено устаревших ключей идемпотентности: {}.", deleted);
+  }
+
+  private UUID reserve(UUID userId, String keyHash, String requestHash) {
+    try {
+      return newTransactionTemplate.execute(
+          status ->
+              idempotencyKeyRepository
+                  .saveAndFlush(
+                      IdempotencyKeyEntity.builder()
+                          .userId(userId)
+                          .keyHash(keyHash)
+                          .requestHash(requestHash)
+                          .status(IdempotencyKeyStatus.IN_PROGRESS)
+                          .build())
+                  .getId());
+    } catch (DataIntegrityViolationException ex) {
+      IdempotencyKeyEntity existing =
+          idempotencyKeyRepository
+              .findByUserIdAndKeyHash(userId, keyHash)
+              .orElseThrow(
+                  () ->
+                      new IdempotencyKeyConflictException(
+                          "Запрос с этим ключом идемпотентности только что завершился, повторите"
+                              + " запрос."));
+      checkSameRequest(existing.getRequestHash(), requestHash);
+      if (existing.getStatus() == IdempotencyKeyStatus.COMPLETED) {
+        return null;
+      }
+      if (isStale(existing) && reclaim(existing.getId())) {
+        log.debug("Зависший ключ идемпотентности с id {} освобожден.", existing.getId());
+        return reserve(userId, keyHash, requestHash);
+      }
+      throw new IdempotencyKeyConflictException(
+          "Запрос с этим ключом идемпотентности уже выполняется.");
+    }
+  }
+
+  /**
+   * Ключ IN_PROGRESS без завершения дольше таймаута остался от упавшего запроса: отметка о
+   * завершении фиксируется вместе с переводом, поэтому перевод по такому ключу не выполнен.
+   */
+  private boolean isStale(IdempotencyKeyEntity reservation) {
+    return reservation
+        .getCreateDateTime()
+        .isBefore(Instant.now().minus(idempotencyConfig.getInProgressTimeout()));
+  }
+
+  private boolean reclaim(UUID reservationId) {
+    Integer deleted =
+        newTransactionTemplate.execute(
+            status ->
+                idempotencyKeyRepository.deleteByIdAndStatus(
+                    reservationId, IdempotencyKeyStatus.IN_PROGRESS));
+    return deleted != null && deleted > 0;
+  }
+
+  private void markCompleted(UUID reservationId) {
+    if (idempotencyKeyRepository.updateStatus(reservationId, IdempotencyKeyStatus.COMPLETED)
+        == 0) {
+      throw new IdempotencyKeyConflictException(
+          "Ключ идемпотентности освобожден до завершения запроса, перевод отменен.");
+    }
+  }
+
+  private static void checkSameRequest(String storedRequestHash, String requestHash) {
+    if (!Objects.equals(storedRequestHash, requestHash)) {
+      throw new IdempotencyKeyConflictException(
+          "Ключ идемпотентности уже использован для другого запроса.");
+    }
+  }
+
+  /** Хэш запроса по картам и сумме в минимальных единицах: 10 и 10.00 считаются одной суммой. */
+  private static String requestHash(TransferDto transfer) {
+    return sha256(
+        transfer.fromCardId()
+            + ":"
+            + transfer.toCardId()
+            + ":"
+            + Money.of(transfer.amount()).minorUnits());
+  }
+
+  private static String sha256(String value) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException("Алгоритм SHA-256 недоступен", ex);
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package tk.project.bankcards.service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import tk.project.bankcards.dto.TransferDto;
+import tk.project.bankcards.entity.Money;
+import tk.project.bankcards.enums.LedgerEntryType;
+
+/**
+ * Журнал проводок: каждый перевод записывается парой строк DEBIT/CREDIT в транзакции перевода.
+ * Записи только добавляются, вставка выполняется одним JDBC-батчем.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LedgerService {
+
+  private static final String INSERT_ENTRY =
+      """
+      INSERT INTO ledger_entries
+          (id, transfer_id, card_id, entry_type, amount, create_date_time)
+      VALUES (?, ?, ?, ?, ?, ?)
+      """;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void recordTransfer(TransferDto transfer) {
+    recordTransfers(List.of(transfer));
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void recordTransfers(List<TransferDto> transfers) {
+    Timestamp now = Timestamp.from(Instant.now());
+    List<Object[]> entries = new ArrayList<>(transfers.size() * 2);
+    for (TransferDto transfer : transfers) {
+      UUID transferId = UUID.randomUUID();
+      long amount = Money.of(transfer.amount()).minorUnits();
+      entries.add(
+          new Object[] {
+            UUID.randomUUID(),
+            transferId,
+            transfer.fromCardId(),
+            LedgerEntryType.DEBIT.name(),
+            amount,
+            now
+          });
+      entries.add(
+          new Object[] {
+            UUID.randomUUID(),
+            transferId,
+            transfer.toCardId(),
+            LedgerEntryType.CREDIT.name(),
+            amount,
+            now
+          });
+    }
+    jdbcTemplate.batchUpdate(INSERT_ENTRY, entries);
+
+    log.debug("В журнал проводок записано переводов: {}.", transfers.size());
+  }
+}
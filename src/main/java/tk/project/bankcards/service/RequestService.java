@@ -7,6 +7,7 @@ import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import tk.project.bankcards.entity.BankCardEntity;
 import tk.project.bankcards.entity.RequestEntity;
 import tk.project.bankcards.entity.UserEntity;
@@ -24,6 +25,7 @@ public class RequestService {
   private final BankCardRepository bankCardRepository;
   private final RequestRepository requestRepository;
 
+  @Transactional
   public UUID createBlockCardRequest(UUID cardId, UserEntity authUser) {
     BankCardEntity existingCard = getCardById(cardId);
     checkOwnership(authUser, existingCard);
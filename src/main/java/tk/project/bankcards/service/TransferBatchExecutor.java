@@ -0,0 +1,178 @@
+package tk.project.bankcards.service;
+
+import static tk.project.bankcards.util.TransferChecker.checkTransfer;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import tk.project.bankcards.config.TransferConfig;
+import tk.project.bankcards.dto.TransferDto;
+import tk.project.bankcards.entity.BankCardEntity;
+import tk.project.bankcards.entity.Money;
+import tk.project.bankcards.entity.UserEntity;
+import tk.project.bankcards.exception.BankCardTransferConflictException;
+import tk.project.bankcards.repository.BankCardRepository;
+
+/**
+ * Выполнение пачки переводов в одной транзакции. Карты всех переводов блокируются одним
+ * упорядоченным запросом, каждый перевод проверяется отдельно, и отклоненный перевод не
+ * откатывает остальные. Если пачка падает целиком (ошибка БД при сбросе изменений или записи
+ * журнала), переводы выполняются повторно по одному, и ошибка достается только виновному.
+ */
+@Slf4j
+@Component
+public class TransferBatchExecutor {
+
+  private final BankCardRepository bankCardRepository;
+  private final LedgerService ledgerService;
+  private final TransactionTemplate transactionTemplate;
+  private final TransferConfig transferConfig;
+  private final DistributionSummary batchSize;
+
+  public TransferBatchExecutor(
+      BankCardRepository bankCardRepository,
+      LedgerService ledgerService,
+      TransactionTemplate transactionTemplate,
+      TransferConfig transferConfig,
+      MeterRegistry meterRegistry) {
+    this.bankCardRepository = bankCardRepository;
+    this.ledgerService = ledgerService;
+    this.transactionTemplate = transactionTemplate;
+    this.transferConfig = transferConfig;
+    this.batchSize = DistributionSummary.builder("transfer.batch.size").register(meterRegistry);
+  }
+
+  public void apply(List<PendingTransfer> submitted) {
+    List<PendingTransfer> batch =
+        submitted.stream().filter(pending -> !pending.result().isDone()).toList();
+    if (batch.isEmpty()) {
+      return;
+    }
+    batchSize.record(batch.size());
+    try {
+      applyInTransaction(batch);
+      return;
+    } catch (RuntimeException ex) {
+      if (batch.size() == 1) {
+        log.warn("Не удалось выполнить перевод.", ex);
+        batch.get(0).result().completeExceptionally(ex);
+        return;
+      }
+      log.warn(
+          "Пачка из {} переводов не выполнена, выполняется перевод по одному.", batch.size(), ex);
+    }
+
+    for (PendingTransfer pending : batch) {
+      try {
+        applyInTransaction(List.of(pending));
+      } catch (RuntimeException ex) {
+        log.warn("Не удалось выполнить перевод.", ex);
+        pending.result().completeExceptionally(ex);
+      }
+    }
+  }
+
+  /**
+   * Ждет результат перевода не дольше app.transfer.await-timeout. Перевод, не взятый в работу до
+   * истечения ожидания, снимается с выполнения. Если пачка с переводом уже выполняется, его
+   * результат после истечения ожидания неизвестен.
+   */
+  public void await(CompletableFuture<Void> result) {
+    try {
+      result.get(transferConfig.getAwaitTimeout().toNanos(), TimeUnit.NANOSECONDS);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new IllegalStateException(ex.getCause());
+    } catch (TimeoutException ex) {
+      BankCardTransferConflictException timeout =
+          new BankCardTransferConflictException("Превышено время ожидания перевода.");
+      if (result.completeExceptionally(timeout)) {
+        throw timeout;
+      }
+      await(result);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new BankCardTransferConflictException("Ожидание перевода прервано.");
+    }
+  }
+
+  /**
+   * Выполняет переводы в одной транзакции. Результаты переводов завершаются только после коммита,
+   * чтобы при откате пачки их можно было выполнить повторно по одному.
+   */
+  private void applyInTransaction(List<PendingTransfer> batch) {
+    List<PendingTransfer> applied = new ArrayList<>(batch.size());
+    Map<PendingTransfer, RuntimeException> rejected = new LinkedHashMap<>();
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          applied.clear();
+          rejected.clear();
+          Map<UUID, BankCardEntity> cards =
+              bankCardRepository.findAllByIdInForUpdate(cardIds(batch)).stream()
+                  .collect(Collectors.toMap(BankCardEntity::getId, Function.identity()));
+
+          for (PendingTransfer pending : batch) {
+            TransferDto transfer = pending.transfer();
+            try {
+              checkTransfer(cards, transfer, pending.authUser());
+            } catch (RuntimeException ex) {
+              rejected.put(pending, ex);
+              continue;
+            }
+            BankCardEntity fromBankCard = cards.get(transfer.fromCardId());
+            BankCardEntity toBankCard = cards.get(transfer.toCardId());
+            Money amount = Money.of(transfer.amount());
+            fromBankCard.setBalance(fromBankCard.getBalance().minus(amount));
+            toBankCard.setBalance(toBankCard.getBalance().plus(amount));
+            applied.add(pending);
+          }
+
+          if (transferConfig.isLedgerEnabled() && !applied.isEmpty()) {
+            ledgerService.recordTransfers(
+                applied.stream().map(PendingTransfer::transfer).toList());
+          }
+          applied.forEach(pending -> pending.onTransferred().run());
+        });
+    rejected.forEach((pending, ex) -> pending.result().completeExceptionally(ex));
+    applied.forEach(pending -> pending.result().complete(null));
+  }
+
+  private static Set<UUID> cardIds(List<PendingTransfer> batch) {
+    return batch.stream()
+        .flatMap(
+            pending -> Stream.of(pending.transfer().fromCardId(), pending.transfer().toCardId()))
+        .collect(Collectors.toSet());
+  }
+
+  /**
+   * Перевод в очереди на выполнение. onTransferred выполняется в транзакции перевода после
+   * изменения балансов.
+   */
+  public record PendingTransfer(
+      TransferDto transfer,
+      UserEntity authUser,
+      Runnable onTransferred,
+      CompletableFuture<Void> result) {
+
+    public PendingTransfer(TransferDto transfer, UserEntity authUser, Runnable onTransferred) {
+      this(transfer, authUser, onTransferred, new CompletableFuture<>());
+    }
+  }
+}
@@ -0,0 +1,102 @@
+package tk.project.bankcards.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import tk.project.bankcards.config.TransferConfig;
+import tk.project.bankcards.dto.TransferDto;
+import tk.project.bankcards.entity.UserEntity;
+import tk.project.bankcards.exception.BankCardTransferConflictException;
+import tk.project.bankcards.service.TransferBatchExecutor.PendingTransfer;
+
+/**
+ * Групповая фиксация переводов: переводы копятся в течение окна или до заполнения пачки и
+ * фиксируются одной транзакцией, что снижает число коммитов в БД. Поток фиксации запускается после
+ * инициализации контекста.
+ */
+@Component
+public class TransferGroupCommitter implements SmartLifecycle {
+
+  private final TransferBatchExecutor transferBatchExecutor;
+  private final TransferConfig transferConfig;
+  private final BlockingQueue<PendingTransfer> queue = new LinkedBlockingQueue<>();
+  private final ExecutorService executor;
+  private volatile boolean running;
+
+  public TransferGroupCommitter(
+      TransferBatchExecutor transferBatchExecutor, TransferConfig transferConfig) {
+    this.transferBatchExecutor = transferBatchExecutor;
+    this.transferConfig = transferConfig;
+    this.executor =
+        Executors.newSingleThreadExecutor(new CustomizableThreadFactory("transfer-group-commit-"));
+  }
+
+  public void transfer(TransferDto transfer, UserEntity authUser, Runnable onTransferred) {
+    PendingTransfer pending = new PendingTransfer(transfer, authUser, onTransferred);
+    queue.add(pending);
+    transferBatchExecutor.await(pending.result());
+  }
+
+  @Override
+  public void start() {
+    executor.execute(this::run);
+    running = true;
+  }
+
+  @Override
+  public void stop() {
+    executor.shutdownNow();
+    running = false;
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void run() {
+    List<PendingTransfer> batch = new ArrayList<>();
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        collectBatch(batch);
+        transferBatchExecutor.apply(batch);
+        batch.clear();
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } finally {
+      queue.drainTo(batch);
+      batch.forEach(
+          pending ->
+              pending
+                  .result()
+                  .completeExceptionally(
+                      new BankCardTransferConflictException("Сервис переводов остановлен.")));
+    }
+  }
+
+  private void collectBatch(List<PendingTransfer> batch) throws InterruptedException {
+    TransferConfig.GroupCommit config = transferConfig.getGroupCommit();
+    batch.add(queue.take());
+    long deadline = System.nanoTime() + config.getWindow().toNanos();
+    while (batch.size() < config.getMaxBatchSize()) {
+      queue.drainTo(batch, config.getMaxBatchSize() - batch.size());
+      long remaining = deadline - System.nanoTime();
+      if (batch.size() >= config.getMaxBatchSize() || remaining <= 0) {
+        return;
+      }
+      PendingTransfer next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+      if (next == null) {
+        return;
+      }
+      batch.add(next);
+    }
+  }
+}
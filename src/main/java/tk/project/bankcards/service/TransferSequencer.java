@@ -0,0 +1,105 @@
+package tk.project.bankcards.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import tk.project.bankcards.config.TransferConfig;
+import tk.project.bankcards.dto.TransferDto;
+import tk.project.bankcards.entity.UserEntity;
+import tk.project.bankcards.exception.BankCardTransferConflictException;
+import tk.project.bankcards.service.TransferBatchExecutor.PendingTransfer;
+
+/**
+ * Последовательное выполнение переводов. Каждый перевод направляется в очередь по паре карт,
+ * поток очереди забирает накопившиеся переводы пачкой и выполняет их в одной транзакции.
+ * Ожидающие вызовы не занимают соединения с БД. Очереди обслуживаются виртуальными потоками,
+ * которые не занимают поток ОС во время ожидания перевода или ответа БД. Потоки очередей
+ * запускаются после инициализации контекста.
+ */
+@Component
+public class TransferSequencer implements SmartLifecycle {
+
+  private final TransferBatchExecutor transferBatchExecutor;
+  private final TransferConfig transferConfig;
+  private final List<BlockingQueue<PendingTransfer>> lanes;
+  private final ExecutorService executor;
+  private volatile boolean running;
+
+  public TransferSequencer(
+      TransferBatchExecutor transferBatchExecutor, TransferConfig transferConfig) {
+    this.transferBatchExecutor = transferBatchExecutor;
+    this.transferConfig = transferConfig;
+
+    int laneCount = transferConfig.getSequencer().getLanes();
+    this.lanes = new ArrayList<>(laneCount);
+    this.executor =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("transfer-lane-", 0).factory());
+    for (int i = 0; i < laneCount; i++) {
+      lanes.add(new LinkedBlockingQueue<>());
+    }
+  }
+
+  public void transfer(TransferDto transfer, UserEntity authUser, Runnable onTransferred) {
+    PendingTransfer pending = new PendingTransfer(transfer, authUser, onTransferred);
+    lanes.get(Math.floorMod(laneKey(transfer).hashCode(), lanes.size())).add(pending);
+    transferBatchExecutor.await(pending.result());
+  }
+
+  @Override
+  public void start() {
+    lanes.forEach(lane -> executor.execute(() -> runLane(lane)));
+    running = true;
+  }
+
+  @Override
+  public void stop() {
+    executor.shutdownNow();
+    running = false;
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  private void runLane(BlockingQueue<PendingTransfer> lane) {
+    int maxBatchSize = transferConfig.getSequencer().getMaxBatchSize();
+    List<PendingTransfer> batch = new ArrayList<>(maxBatchSize);
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        batch.add(lane.take());
+        lane.drainTo(batch, maxBatchSize - 1);
+        transferBatchExecutor.apply(batch);
+        batch.clear();
+      }
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    } finally {
+      lane.drainTo(batch);
+      batch.forEach(
+          pending ->
+              pending
+                  .result()
+                  .completeExceptionally(
+                      new BankCardTransferConflictException("Сервис переводов остановлен.")));
+    }
+  }
+
+  /**
+   * Очередь выбирается по меньшему id из пары карт, одинаково для списаний и зачислений, поэтому
+   * все переводы между одной парой карт идут через одну очередь. Вторая карта пары может
+   * встретиться в других очередях, такие пересечения разрешает упорядоченная блокировка строк в
+   * {@link TransferBatchExecutor}.
+   */
+  private static UUID laneKey(TransferDto transfer) {
+    return transfer.fromCardId().compareTo(transfer.toCardId()) <= 0
+        ? transfer.fromCardId()
+        : transfer.toCardId();
+  }
+}
@@ -1,17 +1,31 @@
 package tk.project.bankcards.service;
 
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import tk.project.bankcards.config.RegistrationConfig;
+import tk.project.bankcards.dto.UserBulkRegisterResultDto;
 import tk.project.bankcards.dto.UserInfoDto;
 import tk.project.bankcards.dto.UserRegisterDto;
+import tk.project.bankcards.dto.UserRegisterResultDto;
 import tk.project.bankcards.dto.UserUpdateDto;
 import tk.project.bankcards.entity.UserEntity;
 import tk.project.bankcards.enums.Role;
@@ -19,20 +33,32 @@ import tk.project.bankcards.exception.UserConflictException;
 import tk.project.bankcards.exception.UserNotFoundException;
 import tk.project.bankcards.mapper.UserMapper;
 import tk.project.bankcards.repository.UserRepository;
+import tk.project.bankcards.security.CredentialsCache;
+import tk.project.bankcards.security.PasswordHashingExecutor;
+import tk.project.bankcards.security.PrincipalCache;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 
-  private final PasswordEncoder passwordEncoder;
+  private static final int EMAIL_LOOKUP_CHUNK_SIZE = 500;
+
+  private final BankCardCache bankCardCache;
+  private final CredentialsCache credentialsCache;
+  private final PasswordHashingExecutor passwordHashingExecutor;
+  private final PrincipalCache principalCache;
+  private final RegistrationConfig registrationConfig;
+  private final TransactionTemplate transactionTemplate;
+  private final Validator validator;
   private final UserMapper userMapper;
   private final UserRepository userRepository;
 
   @Override
   public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-    return userRepository
-        .findByEmail(email)
+    // Загрузка в кэш идет в транзакции на запись, то есть с основного пула, а не с реплики
+    return principalCache
+        .get(email, key -> transactionTemplate.execute(status -> userRepository.findByEmail(key)))
         .orElseThrow(
             () ->
                 new UsernameNotFoundException(
@@ -40,13 +66,34 @@ public class UserService implements UserDetailsService {
                         "Не найдены данные пользователя с почтой %s для аутентификации", email)));
   }
 
+  @Override
+  @Transactional
+  public UserDetails updatePassword(UserDetails user, String newPassword) {
+    UserEntity existingUser =
+        userRepository
+            .findByEmail(user.getUsername())
+            .orElseThrow(
+                () ->
+                    new UsernameNotFoundException(
+                        String.format(
+                            "Не найдены данные пользователя с почтой %s для обновления пароля",
+                            user.getUsername())));
+    existingUser.setPassword(newPassword);
+    userRepository.save(existingUser);
+    evictCachedUser(existingUser.getEmail());
+
+    log.debug("Хэш пароля пользователя с id {} перевыпущен.", existingUser.getId());
+    return existingUser;
+  }
+
   public UserInfoDto register(UserRegisterDto newUser) {
     throwExceptionIfEmailExists(newUser.email());
 
     UserEntity userEntity = userMapper.toUserEntity(newUser);
-    userEntity.setPassword(passwordEncoder.encode(newUser.password()));
+    userEntity.setPassword(passwordHashingExecutor.encode(newUser.password()));
     userEntity.setRole(Role.USER);
     userRepository.save(userEntity);
+    evictCachedUser(userEntity.getEmail());
 
     log.debug(
         "Пользователь c именем {} и почтой {} сохранен с id: {}.",
@@ -56,11 +103,68 @@ public class UserService implements UserDetailsService {
     return userMapper.toUserInfoDto(userEntity);
   }
 
+  public UserBulkRegisterResultDto registerAll(List<UserRegisterDto> newUsers) {
+    int batchSize = registrationConfig.getBulkBatchSize();
+    UserRegisterResultDto[] results = new UserRegisterResultDto[newUsers.size()];
+    List<Integer> validIndexes = new ArrayList<>();
+    Set<String> batchEmails = new HashSet<>();
+
+    for (int i = 0; i < newUsers.size(); i++) {
+      UserRegisterDto newUser = newUsers.get(i);
+      String violations = validate(newUser);
+      if (violations != null) {
+        results[i] = failedRegistration(i, newUser, violations);
+      } else if (!batchEmails.add(newUser.email())) {
+        results[i] =
+            failedRegistration(
+                i, newUser, String.format("Почта %s повторяется в запросе.", newUser.email()));
+      } else {
+        validIndexes.add(i);
+      }
+    }
+
+    Set<String> existingEmails = findExistingEmails(batchEmails);
+    List<Integer> newIndexes = new ArrayList<>();
+    for (int i : validIndexes) {
+      UserRegisterDto newUser = newUsers.get(i);
+      if (existingEmails.contains(newUser.email())) {
+        results[i] =
+            failedRegistration(
+                i,
+                newUser,
+                String.format("Пользователь c почтой %s уже существует.", newUser.email()));
+      } else {
+        newIndexes.add(i);
+      }
+    }
+
+    List<String> passwordHashes =
+        passwordHashingExecutor.encodeAll(
+            newIndexes.stream().map(i -> newUsers.get(i).password()).toList());
+
+    for (int from = 0; from < newIndexes.size(); from += batchSize) {
+      int to = Math.min(from + batchSize, newIndexes.size());
+      saveRegisteredUsers(
+          newUsers, newIndexes.subList(from, to), passwordHashes.subList(from, to), results);
+    }
+
+    int failed = (int) Arrays.stream(results).filter(r -> r.id() == null).count();
+    log.debug(
+        "Пакетная регистрация пользователей: сохранено {}, отклонено {}.",
+        results.length - failed,
+        failed);
+    return new UserBulkRegisterResultDto(results.length - failed, failed, List.of(results));
+  }
+
   @Transactional
   public UserInfoDto update(UserUpdateDto userUpdateDto) {
     UserEntity existingUser = getUserById(userUpdateDto.id());
+    String previousEmail = existingUser.getEmail();
     UserEntity updatedUser = updateUserFields(existingUser, userUpdateDto);
     userRepository.save(updatedUser);
+    evictCachedUser(previousEmail);
+    evictCachedUser(updatedUser.getEmail());
+    bankCardCache.invalidateByOwnerId(updatedUser.getId());
 
     log.debug(
         "Пользователь с id {}, c именем {} и почтой {} обновлен.",
@@ -70,15 +174,100 @@ public class UserService implements UserDetailsService {
     return userMapper.toUserInfoDto(updatedUser);
   }
 
-  public UserInfoDto getUserByEmail(String email) {
-    UserEntity userByEmail =
-        userRepository
-            .findByEmail(email)
-            .orElseThrow(
-                () ->
-                    new UserNotFoundException(
-                        String.format("Пользователь с почтой %s не найден.", email)));
-    return userMapper.toUserInfoDto(userByEmail);
+  public UserInfoDto getUserInfo(UserEntity authUser) {
+    return userMapper.toUserInfoDto(authUser);
+  }
+
+  /** Почты проверяются порциями, чтобы не упереться в предел числа параметров запроса. */
+  private Set<String> findExistingEmails(Set<String> emails) {
+    List<String> emailList = new ArrayList<>(emails);
+    Set<String> existingEmails = new HashSet<>();
+    for (int from = 0; from < emailList.size(); from += EMAIL_LOOKUP_CHUNK_SIZE) {
+      existingEmails.addAll(
+          userRepository.findExistingEmails(
+              emailList.subList(from, Math.min(from + EMAIL_LOOKUP_CHUNK_SIZE, emailList.size()))));
+    }
+    return existingEmails;
+  }
+
+  private void saveRegisteredUsers(
+      List<UserRegisterDto> newUsers,
+      List<Integer> indexes,
+      List<String> passwordHashes,
+      UserRegisterResultDto[] results) {
+    try {
+      List<UserEntity> savedUsers =
+          transactionTemplate.execute(
+              status -> {
+                List<UserEntity> users = new ArrayList<>(indexes.size());
+                for (int i = 0; i < indexes.size(); i++) {
+                  users.add(toNewUser(newUsers.get(indexes.get(i)), passwordHashes.get(i)));
+                }
+                return userRepository.saveAll(users);
+              });
+      for (int i = 0; i < indexes.size(); i++) {
+        results[indexes.get(i)] = registeredUser(indexes.get(i), savedUsers.get(i));
+      }
+      return;
+    } catch (DataIntegrityViolationException ex) {
+      log.debug("Пакет пользователей не сохранен, выполняется сохранение по одному.", ex);
+    }
+
+    for (int i = 0; i < indexes.size(); i++) {
+      int index = indexes.get(i);
+      UserRegisterDto newUser = newUsers.get(index);
+      UserEntity user = toNewUser(newUser, passwordHashes.get(i));
+      try {
+        transactionTemplate.executeWithoutResult(status -> userRepository.save(user));
+        results[index] = registeredUser(index, user);
+      } catch (DataIntegrityViolationException ex) {
+        results[index] =
+            failedRegistration(
+                index,
+                newUser,
+                String.format("Пользователь c почтой %s уже существует.", newUser.email()));
+      }
+    }
+  }
+
+  private UserEntity toNewUser(UserRegisterDto newUser, String passwordHash) {
+    UserEntity userEntity = userMapper.toUserEntity(newUser);
+    userEntity.setPassword(passwordHash);
+    userEntity.setRole(Role.USER);
+    return userEntity;
+  }
+
+  private UserRegisterResultDto registeredUser(int index, UserEntity user) {
+    evictCachedUser(user.getEmail());
+    return new UserRegisterResultDto(index, user.getEmail(), user.getId(), null);
+  }
+
+  private UserRegisterResultDto failedRegistration(
+      int index, UserRegisterDto newUser, String errorMessage) {
+    String email = newUser == null ? null : newUser.email();
+    return new UserRegisterResultDto(index, email, null, errorMessage);
+  }
+
+  private String validate(UserRegisterDto newUser) {
+    if (newUser == null) {
+      return "Данные пользователя не заданы.";
+    }
+
+    Set<ConstraintViolation<UserRegisterDto>> violations = validator.validate(newUser);
+    if (violations.isEmpty()) {
+      return null;
+    }
+    return violations.stream()
+        .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+        .map(
+            violation ->
+                String.format("%s: %s", violation.getPropertyPath(), violation.getMessage()))
+        .collect(Collectors.joining("; "));
+  }
+
+  private void evictCachedUser(String email) {
+    credentialsCache.invalidate(email);
+    principalCache.invalidate(email);
   }
 
   private UserEntity getUserById(UUID userId) {
@@ -105,7 +294,7 @@ public class UserService implements UserDetailsService {
       existingUser.setEmail(userUpdateDto.email());
     }
     if (Objects.nonNull(userUpdateDto.password()) && !userUpdateDto.password().isBlank()) {
-      existingUser.setPassword(passwordEncoder.encode(userUpdateDto.password()));
+      existingUser.setPassword(passwordHashingExecutor.encode(userUpdateDto.password()));
     }
     return existingUser;
   }
@@ -0,0 +1,4 @@
+package tk.project.bankcards.util;
+
+/** Значение ответа вместе с его ETag. */
+public record ETagged<T>(T value, String etag) {}
@@ -0,0 +1,42 @@
+package tk.project.bankcards.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.stream.Stream;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Сильные ETag ответов. Тег строится по хэшу значений, которые однозначно определяют
+ * представление: id и версий записей, а для списков еще и ключа страницы.
+ */
+@UtilityClass
+public class ETags {
+
+  private static final int LENGTH = 16;
+
+  public static String of(Object... parts) {
+    return of(Arrays.stream(parts));
+  }
+
+  public static String of(Stream<?> parts) {
+    MessageDigest digest = sha256();
+    parts.forEach(
+        part -> {
+          digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+          digest.update((byte) 0);
+        });
+    byte[] hash = Arrays.copyOf(digest.digest(), LENGTH);
+    return '"' + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + '"';
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+}
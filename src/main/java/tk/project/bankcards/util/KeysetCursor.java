@@ -0,0 +1,38 @@
+package tk.project.bankcards.util;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.UUID;
+import tk.project.bankcards.exception.InvalidCursorException;
+
+/**
+ * Позиция в постраничной выборке: значение ключа сортировки и id последней выданной записи.
+ * Клиенту передается в виде непрозрачной строки.
+ */
+public record KeysetCursor(long sortKey, UUID id) {
+
+  private static final int LENGTH = Long.BYTES * 3;
+
+  public String encode() {
+    ByteBuffer buffer =
+        ByteBuffer.allocate(LENGTH)
+            .putLong(sortKey)
+            .putLong(id.getMostSignificantBits())
+            .putLong(id.getLeastSignificantBits());
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+  }
+
+  public static KeysetCursor decode(String cursor) {
+    byte[] bytes;
+    try {
+      bytes = Base64.getUrlDecoder().decode(cursor);
+    } catch (IllegalArgumentException ex) {
+      bytes = new byte[0];
+    }
+    if (bytes.length != LENGTH) {
+      throw new InvalidCursorException(String.format("Некорректный курсор страницы: %s.", cursor));
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    return new KeysetCursor(buffer.getLong(), new UUID(buffer.getLong(), buffer.getLong()));
+  }
+}
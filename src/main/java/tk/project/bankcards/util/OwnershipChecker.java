@@ -2,6 +2,7 @@ package tk.project.bankcards.util;
 
 import java.util.Objects;
 import lombok.experimental.UtilityClass;
+import tk.project.bankcards.dto.BankCardInfoDto;
 import tk.project.bankcards.entity.BankCardEntity;
 import tk.project.bankcards.entity.UserEntity;
 import tk.project.bankcards.exception.UserNotAccessException;
@@ -17,4 +18,13 @@ public class OwnershipChecker {
               authUser.getId(), bankCard.getId()));
     }
   }
+
+  public static void checkOwnership(UserEntity authUser, BankCardInfoDto bankCard) {
+    if (!Objects.equals(authUser.getId(), bankCard.owner().id())) {
+      throw new UserNotAccessException(
+          String.format(
+              "У пользователя с id %s нет доступа к банковской карте с id %s.",
+              authUser.getId(), bankCard.id()));
+    }
+  }
 }
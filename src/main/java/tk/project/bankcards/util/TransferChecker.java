@@ -0,0 +1,44 @@
+package tk.project.bankcards.util;
+
+import static tk.project.bankcards.util.BankCardStatusChecker.checkBankCardIsActive;
+import static tk.project.bankcards.util.OwnershipChecker.checkOwnership;
+
+import java.util.Map;
+import java.util.UUID;
+import lombok.experimental.UtilityClass;
+import tk.project.bankcards.dto.TransferDto;
+import tk.project.bankcards.entity.BankCardEntity;
+import tk.project.bankcards.entity.Money;
+import tk.project.bankcards.entity.UserEntity;
+import tk.project.bankcards.exception.BankCardNotFoundException;
+import tk.project.bankcards.exception.NotEnoughBankCardBalanceException;
+
+@UtilityClass
+public class TransferChecker {
+
+  public static void checkTransfer(
+      Map<UUID, BankCardEntity> cards, TransferDto transfer, UserEntity authUser) {
+    BankCardEntity fromBankCard = getLoadedCard(cards, transfer.fromCardId());
+    checkOwnership(authUser, fromBankCard);
+    checkBankCardIsActive(fromBankCard);
+
+    if (fromBankCard.getBalance().isLessThan(Money.of(transfer.amount()))) {
+      throw new NotEnoughBankCardBalanceException(
+          String.format(
+              "На счету с id %s недостаточно средств для перевода.", fromBankCard.getId()));
+    }
+
+    BankCardEntity toBankCard = getLoadedCard(cards, transfer.toCardId());
+    checkOwnership(authUser, toBankCard);
+    checkBankCardIsActive(toBankCard);
+  }
+
+  private static BankCardEntity getLoadedCard(Map<UUID, BankCardEntity> cards, UUID cardId) {
+    BankCardEntity bankCard = cards.get(cardId);
+    if (bankCard == null) {
+      throw new BankCardNotFoundException(
+          String.format("Банковская карта с id %s не найдена", cardId));
+    }
+    return bankCard;
+  }
+}
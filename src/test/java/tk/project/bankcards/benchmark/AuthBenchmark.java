@@ -0,0 +1,98 @@
+package tk.project.bankcards.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import tk.project.bankcards.config.AuthConfig;
+import tk.project.bankcards.entity.UserEntity;
+import tk.project.bankcards.enums.Role;
+import tk.project.bankcards.security.AccessTokenService;
+import tk.project.bankcards.security.CachingAuthenticationProvider;
+import tk.project.bankcards.security.CredentialsCache;
+
+/**
+ * Сравнение стоимости аутентификации одного запроса: HTTP Basic с BCrypt, HTTP Basic с попаданием в
+ * кэш учетных данных и Bearer-токен. Поиск пользователя в БД заменен заглушкой.
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AuthBenchmark {
+
+  private static final String EMAIL = "user@mail.em";
+  private static final String PASSWORD = "userPassword";
+
+  private DaoAuthenticationProvider basicProvider;
+  private CachingAuthenticationProvider cachingProvider;
+  private AccessTokenService accessTokenService;
+  private String accessToken;
+
+  @Setup
+  public void setUp() {
+    BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    UserEntity user =
+        UserEntity.builder()
+            .id(UUID.randomUUID())
+            .name("user")
+            .email(EMAIL)
+            .password(passwordEncoder.encode(PASSWORD))
+            .role(Role.USER)
+            .build();
+    UserDetailsService userDetailsService = email -> user;
+
+    AuthConfig authConfig = new AuthConfig();
+    authConfig.getToken().setSecret("benchmark-secret");
+
+    basicProvider = new DaoAuthenticationProvider(userDetailsService);
+    basicProvider.setPasswordEncoder(passwordEncoder);
+
+    cachingProvider =
+        new CachingAuthenticationProvider(
+            userDetailsService,
+            (userDetails, newPassword) -> userDetails,
+            passwordEncoder,
+            new CredentialsCache(authConfig, new SimpleMeterRegistry()));
+    cachingProvider.authenticate(credentials());
+
+    accessTokenService = new AccessTokenService(authConfig, new ObjectMapper());
+    accessToken = accessTokenService.issue(user).accessToken();
+  }
+
+  @Benchmark
+  public Authentication basicBcrypt() {
+    return basicProvider.authenticate(credentials());
+  }
+
+  @Benchmark
+  public Authentication basicCached() {
+    return cachingProvider.authenticate(credentials());
+  }
+
+  @Benchmark
+  public Object bearerToken() {
+    return accessTokenService.parse(accessToken).orElseThrow();
+  }
+
+  private static Authentication credentials() {
+    return UsernamePasswordAuthenticationToken.unauthenticated(EMAIL, PASSWORD);
+  }
+}
@@ -0,0 +1,72 @@
+package tk.project.bankcards.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tk.project.bankcards.dto.BankCardShortInfoDto;
+import tk.project.bankcards.entity.BankCardEntity;
+import tk.project.bankcards.entity.Money;
+import tk.project.bankcards.entity.UserEntity;
+import tk.project.bankcards.enums.BankCardStatus;
+import tk.project.bankcards.enums.Role;
+import tk.project.bankcards.mapper.BankCardMapper;
+
+/** Маппинг страницы карт в краткие DTO. */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BankCardMapperBenchmark {
+
+  @Param({"10", "100", "1000"})
+  private int size;
+
+  private final BankCardMapper mapper = BankCardMapper.MAPPER;
+  private List<BankCardEntity> bankCards;
+
+  @Setup
+  public void setUp() {
+    UserEntity owner =
+        UserEntity.builder()
+            .id(UUID.randomUUID())
+            .name("user")
+            .email("user@mail.em")
+            .password("password")
+            .role(Role.USER)
+            .build();
+    bankCards =
+        LongStream.range(0, size)
+            .mapToObj(
+                i ->
+                    BankCardEntity.builder()
+                        .id(UUID.randomUUID())
+                        .number(1234_1234_1234_0000L + i)
+                        .owner(owner)
+                        .expiryDate(LocalDate.now().plusYears(2L))
+                        .status(BankCardStatus.ACTIVE)
+                        .balance(Money.of(BigDecimal.valueOf(1000 + i)))
+                        .build())
+            .toList();
+  }
+
+  @Benchmark
+  public List<BankCardShortInfoDto> toBankCardShortInfoDto() {
+    return mapper.toBankCardShortInfoDto(bankCards);
+  }
+}
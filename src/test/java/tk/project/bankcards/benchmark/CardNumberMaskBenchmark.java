@@ -0,0 +1,31 @@
+package tk.project.bankcards.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tk.project.bankcards.mapper.BankCardMapper;
+
+/** Маскирование номера карты при маппинге в DTO. */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CardNumberMaskBenchmark {
+
+  private final BankCardMapper mapper = BankCardMapper.MAPPER;
+  private Long number = 1234_5678_9012_3456L;
+
+  @Benchmark
+  public String mapNumber() {
+    return mapper.mapNumber(number);
+  }
+}
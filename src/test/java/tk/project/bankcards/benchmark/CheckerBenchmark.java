@@ -0,0 +1,84 @@
+package tk.project.bankcards.benchmark;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tk.project.bankcards.entity.BankCardEntity;
+import tk.project.bankcards.entity.UserEntity;
+import tk.project.bankcards.enums.BankCardStatus;
+import tk.project.bankcards.exception.BankCardStatusNotActiveException;
+import tk.project.bankcards.exception.UserNotAccessException;
+import tk.project.bankcards.util.BankCardStatusChecker;
+import tk.project.bankcards.util.OwnershipChecker;
+
+/** Проверки владельца и статуса карты: успешная проверка и отказ с исключением. */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CheckerBenchmark {
+
+  private UserEntity owner;
+  private UserEntity otherUser;
+  private BankCardEntity activeCard;
+  private BankCardEntity blockedCard;
+
+  @Setup
+  public void setUp() {
+    owner = UserEntity.builder().id(UUID.randomUUID()).build();
+    otherUser = UserEntity.builder().id(UUID.randomUUID()).build();
+    activeCard =
+        BankCardEntity.builder()
+            .id(UUID.randomUUID())
+            .owner(owner)
+            .status(BankCardStatus.ACTIVE)
+            .build();
+    blockedCard =
+        BankCardEntity.builder()
+            .id(UUID.randomUUID())
+            .owner(owner)
+            .status(BankCardStatus.BLOCKED)
+            .build();
+  }
+
+  @Benchmark
+  public void checkOwnership() {
+    OwnershipChecker.checkOwnership(owner, activeCard);
+  }
+
+  @Benchmark
+  public Object checkOwnershipRejected() {
+    try {
+      OwnershipChecker.checkOwnership(otherUser, activeCard);
+      return null;
+    } catch (UserNotAccessException ex) {
+      return ex;
+    }
+  }
+
+  @Benchmark
+  public void checkBankCardIsActive() {
+    BankCardStatusChecker.checkBankCardIsActive(activeCard);
+  }
+
+  @Benchmark
+  public Object checkBankCardIsActiveRejected() {
+    try {
+      BankCardStatusChecker.checkBankCardIsActive(blockedCard);
+      return null;
+    } catch (BankCardStatusNotActiveException ex) {
+      return ex;
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package tk.project.bankcards.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import lombok.SneakyThrows;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import tk.project.bankcards.dto.BankCardInfoDto;
+import tk.project.bankcards.dto.UserInfoDto;
+import tk.project.bankcards.enums.BankCardStatus;
+import tk.project.bankcards.enums.Role;
+
+/** Сериализация ответа с информацией о карте в JSON тем же ObjectMapper, что строит Spring. */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JsonSerializationBenchmark {
+
+  private ObjectMapper objectMapper;
+  private BankCardInfoDto bankCard;
+
+  @Setup
+  public void setUp() {
+    objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    bankCard =
+        new BankCardInfoDto(
+            UUID.randomUUID(),
+            "**** **** **** 1234",
+            new UserInfoDto(UUID.randomUUID(), "user", "user@mail.em", Role.USER),
+            LocalDate.now().plusYears(2L),
+            BankCardStatus.ACTIVE,
+            new BigDecimal("12123.1200"));
+  }
+
+  @Benchmark
+  @SneakyThrows
+  public byte[] writeBankCardInfoDto() {
+    return objectMapper.writeValueAsBytes(bankCard);
+  }
+}
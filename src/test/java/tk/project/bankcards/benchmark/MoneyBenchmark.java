@@ -0,0 +1,55 @@
+package tk.project.bankcards.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tk.project.bankcards.entity.Money;
+
+/**
+ * Сравнение арифметики перевода (проверка баланса, списание и зачисление) над BigDecimal со
+ * шкалой 10, как хранился баланс ранее, и над минимальными единицами в long.
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoneyBenchmark {
+
+  private BigDecimal fromBalance = new BigDecimal("12123.1200000000");
+  private BigDecimal toBalance = new BigDecimal("1323123.1200000000");
+  private final BigDecimal amount = new BigDecimal("10.25");
+
+  private Money fromMoney = Money.of(fromBalance);
+  private Money toMoney = Money.of(toBalance);
+  private final Money moneyAmount = Money.of(amount);
+
+  @Benchmark
+  public BigDecimal bigDecimalTransfer() {
+    if (fromBalance.compareTo(amount) < 0) {
+      fromBalance = fromBalance.add(toBalance);
+    }
+    fromBalance = fromBalance.subtract(amount);
+    toBalance = toBalance.add(amount);
+    return toBalance;
+  }
+
+  @Benchmark
+  public Money minorUnitsTransfer() {
+    if (fromMoney.isLessThan(moneyAmount)) {
+      fromMoney = fromMoney.plus(toMoney);
+    }
+    fromMoney = fromMoney.minus(moneyAmount);
+    toMoney = toMoney.plus(moneyAmount);
+    return toMoney;
+  }
+}
@@ -0,0 +1,40 @@
+package tk.project.bankcards.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/** Проверка пароля BCrypt с параметрами кодировщика по умолчанию. */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PasswordEncoderBenchmark {
+
+  private static final String PASSWORD = "userPassword";
+
+  private BCryptPasswordEncoder passwordEncoder;
+  private String encodedPassword;
+
+  @Setup
+  public void setUp() {
+    passwordEncoder = new BCryptPasswordEncoder();
+    encodedPassword = passwordEncoder.encode(PASSWORD);
+  }
+
+  @Benchmark
+  public boolean matches() {
+    return passwordEncoder.matches(PASSWORD, encodedPassword);
+  }
+}
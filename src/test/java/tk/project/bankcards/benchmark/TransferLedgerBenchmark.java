@@ -0,0 +1,109 @@
+package tk.project.bankcards.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import tk.project.bankcards.BankcardsApplication;
+import tk.project.bankcards.dto.TransferDto;
+import tk.project.bankcards.entity.BankCardEntity;
+import tk.project.bankcards.entity.Money;
+import tk.project.bankcards.entity.UserEntity;
+import tk.project.bankcards.enums.BankCardStatus;
+import tk.project.bankcards.enums.Role;
+import tk.project.bankcards.repository.BankCardRepository;
+import tk.project.bankcards.repository.UserRepository;
+import tk.project.bankcards.service.BankCardService;
+
+/**
+ * Задержка одного перевода через BankCardService с журналом проводок и без него. Контекст
+ * приложения поднимается на H2 в памяти.
+ */
+@Fork(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 15, time = 3)
+@Measurement(iterations = 5, time = 3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransferLedgerBenchmark {
+
+  @Param({"false", "true"})
+  private boolean ledgerEnabled;
+
+  private ConfigurableApplicationContext context;
+  private BankCardService bankCardService;
+  private UserEntity owner;
+  private TransferDto forward;
+  private TransferDto backward;
+  private boolean forwardNext;
+
+  @Setup
+  public void setUp() {
+    context =
+        new SpringApplicationBuilder(BankcardsApplication.class)
+            .web(WebApplicationType.NONE)
+            .run(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark",
+                "--spring.datasource.driverClassName=org.h2.Driver",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.liquibase.enabled=false",
+                "--app.admin-init.enabled=false",
+                "--app.transfer.ledger-enabled=" + ledgerEnabled,
+                "--logging.level.root=WARN");
+    bankCardService = context.getBean(BankCardService.class);
+
+    owner =
+        context
+            .getBean(UserRepository.class)
+            .save(
+                UserEntity.builder()
+                    .name("user")
+                    .email("user@mail.em")
+                    .password("password")
+                    .role(Role.USER)
+                    .build());
+    BankCardEntity first = saveCard(1234_1234_1234_1234L);
+    BankCardEntity second = saveCard(1234_1234_1234_1235L);
+    forward = new TransferDto(first.getId(), second.getId(), BigDecimal.ONE);
+    backward = new TransferDto(second.getId(), first.getId(), BigDecimal.ONE);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public void transfer() {
+    forwardNext = !forwardNext;
+    bankCardService.transferBetweenOwnerCard(forwardNext ? forward : backward, owner);
+  }
+
+  private BankCardEntity saveCard(long number) {
+    return context
+        .getBean(BankCardRepository.class)
+        .save(
+            BankCardEntity.builder()
+                .number(number)
+                .owner(owner)
+                .expiryDate(LocalDate.now().plusYears(1L))
+                .status(BankCardStatus.ACTIVE)
+                .balance(Money.of(BigDecimal.valueOf(1_000_000)))
+                .build());
+  }
+}
@@ -0,0 +1,140 @@
+package tk.project.bankcards.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import tk.project.bankcards.dto.TransferDto;
+import tk.project.bankcards.entity.BankCardEntity;
+import tk.project.bankcards.entity.Money;
+import tk.project.bankcards.enums.BankCardStatus;
+import tk.project.bankcards.enums.TransferStatus;
+
+/**
+ * Задержка ответа синхронного и асинхронного перевода на двух нагруженных картах. Для асинхронного
+ * режима дополнительно измеряется время до обработки всех переводов. Запуск: mvn -P load-test test.
+ */
+@Slf4j
+@Tag("load")
+class AsyncTransferLoadTest extends BaseIntegrationTest {
+
+  private static final int TRANSFERS = 2_000;
+  private static final int THREADS = 32;
+  private static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(1_000_000);
+
+  @SneakyThrows
+  @ParameterizedTest(name = "{0}")
+  @ValueSource(strings = {"/transfer-self", "/transfer-self/async"})
+  void transferResponseLatency(String path) {
+    // GIVEN
+    saveExistingUser();
+    BankCardEntity firstCard = saveCard(1234_1234_1234_1234L);
+    BankCardEntity secondCard = saveCard(1234_1234_1234_1235L);
+    String forward =
+        objectMapper.writeValueAsString(
+            new TransferDto(firstCard.getId(), secondCard.getId(), BigDecimal.ONE));
+    String backward =
+        objectMapper.writeValueAsString(
+            new TransferDto(secondCard.getId(), firstCard.getId(), BigDecimal.ONE));
+    String url =
+        endpointsConfig.getBasePath()
+            + endpointsConfig.getBankCardsPath()
+            + endpointsConfig.getUserAccess()
+            + path;
+
+    mockMvc
+        .perform(
+            get(endpointsConfig.getBasePath()
+                    + endpointsConfig.getBankCardsPath()
+                    + endpointsConfig.getUserAccess())
+                .with(httpBasic(existingUser.getUsername(), existingUserPassword)))
+        .andExpect(status().isOk());
+
+    long[] latencies = new long[TRANSFERS];
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    List<Future<?>> futures = new ArrayList<>(TRANSFERS);
+
+    // WHEN
+    for (int i = 0; i < TRANSFERS; i++) {
+      int index = i;
+      String content = i % 2 == 0 ? forward : backward;
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                long startedAt = System.nanoTime();
+                mockMvc
+                    .perform(
+                        post(url)
+                            .with(httpBasic(existingUser.getUsername(), existingUserPassword))
+                            .contentType("application/json")
+                            .content(content))
+                    .andExpect(status().is2xxSuccessful());
+                latencies[index] = System.nanoTime() - startedAt;
+                return null;
+              }));
+    }
+    long startedAt = System.nanoTime();
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    long respondedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+    executor.shutdown();
+
+    while (transferRepository.findAll().stream()
+        .anyMatch(
+            transfer ->
+                transfer.getStatus() == TransferStatus.PENDING
+                    || transfer.getStatus() == TransferStatus.PROCESSING)) {
+      Thread.sleep(20L);
+    }
+    long processedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+    // THEN
+    Arrays.sort(latencies);
+    log.info(
+        "{}: p50 {} мкс, p99 {} мкс, все ответы за {} мс, все переводы выполнены за {} мс.",
+        path,
+        latencies[TRANSFERS / 2] / 1_000,
+        latencies[TRANSFERS * 99 / 100] / 1_000,
+        respondedMillis,
+        processedMillis);
+
+    BigDecimal total =
+        bankCardRepository.findAll().stream()
+            .map(BankCardEntity::getBalance)
+            .reduce(Money.ZERO, Money::plus)
+            .toBigDecimal();
+    assertEquals(0, INITIAL_BALANCE.multiply(BigDecimal.valueOf(2)).compareTo(total));
+  }
+
+  private BankCardEntity saveCard(long number) {
+    BankCardEntity card =
+        BankCardEntity.builder()
+            .number(number)
+            .owner(existingUser)
+            .expiryDate(LocalDate.now().plusMonths(2L))
+            .status(BankCardStatus.ACTIVE)
+            .balance(Money.of(INITIAL_BALANCE))
+            .build();
+    return bankCardRepository.save(card);
+  }
+}
@@ -0,0 +1,126 @@
+package tk.project.bankcards.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Время и занятый heap при выгрузке большого числа карт через HTTP. Карты вставляются одним
+ * запросом средствами H2. Запуск: mvn -P load-test test -Dtest=BankCardExportLoadTest.
+ */
+@Slf4j
+@Tag("load")
+class BankCardExportLoadTest extends BaseIntegrationTest {
+
+  private static final int CARDS = Integer.getInteger("load.export-cards", 1_000_000);
+
+  @LocalServerPort private int port;
+
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  @AfterEach
+  void deleteBankCards() {
+    jdbcTemplate.update("DELETE FROM bank_cards");
+  }
+
+  @SneakyThrows
+  @ParameterizedTest(name = "{0}, gzip {1}")
+  @CsvSource({"NDJSON, false", "CSV, true"})
+  void exportAllBankCards(String format, boolean gzip) {
+    // GIVEN
+    saveExistingUser();
+    jdbcTemplate.update(
+        """
+        INSERT INTO bank_cards
+            (id, number, owner_id, expiry_date, status, balance, version,
+             create_date_time, update_date_time)
+        SELECT RANDOM_UUID(), 1234000000000000 + X, ?, ?, 'ACTIVE', X * 100, 0,
+               CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+        FROM SYSTEM_RANGE(1, ?)
+        """,
+        existingUser.getId(),
+        LocalDate.now().plusYears(2L),
+        CARDS);
+    String credentials = admin.getUsername() + ":" + adminPassword;
+    HttpRequest request =
+        HttpRequest.newBuilder(
+                URI.create(
+                    "http://localhost:"
+                        + port
+                        + endpointsConfig.getBasePath()
+                        + endpointsConfig.getBankCardsPath()
+                        + endpointsConfig.getAdminAccess()
+                        + "/export?format="
+                        + format
+                        + "&gzip="
+                        + gzip))
+            .header(
+                "Authorization",
+                "Basic "
+                    + Base64.getEncoder()
+                        .encodeToString(credentials.getBytes(StandardCharsets.UTF_8)))
+            .GET()
+            .build();
+    long usedBefore = usedHeapAfterGc();
+
+    // WHEN
+    long startedAt = System.nanoTime();
+    HttpResponse<InputStream> response =
+        HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.ofInputStream());
+    long lines;
+    long usedInTheMiddle = 0;
+    try (InputStream body = gzip ? new GZIPInputStream(response.body()) : response.body();
+        LineNumberReader reader =
+            new LineNumberReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+      while (reader.readLine() != null) {
+        if (reader.getLineNumber() == CARDS / 2) {
+          usedInTheMiddle = usedHeapAfterGc();
+        }
+      }
+      lines = reader.getLineNumber();
+    }
+    long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+
+    // THEN
+    log.info(
+        "{}, gzip {}: {} карт за {} мс (с учетом сборки мусора в середине), heap до выгрузки {}"
+            + " МБ, в середине выгрузки {} МБ.",
+        format,
+        gzip,
+        CARDS,
+        elapsedMillis,
+        usedBefore / (1024 * 1024),
+        usedInTheMiddle / (1024 * 1024));
+    assertEquals(200, response.statusCode());
+    assertEquals(format.equals("CSV") ? CARDS + 1 : CARDS, lines);
+  }
+
+  private static long usedHeapAfterGc() {
+    System.gc();
+    return ManagementFactory.getMemoryPoolMXBeans().stream()
+        .filter(pool -> pool.getType() == MemoryType.HEAP)
+        .mapToLong(pool -> pool.getUsage().getUsed())
+        .sum();
+  }
+}
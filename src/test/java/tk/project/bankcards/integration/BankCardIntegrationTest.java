@@ -1,39 +1,93 @@
 package tk.project.bankcards.integration;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import tk.project.bankcards.config.IdempotencyConfig;
+import tk.project.bankcards.config.TransferConfig;
 import tk.project.bankcards.dto.BankCardCreateDto;
 import tk.project.bankcards.dto.BankCardInfoDto;
+import tk.project.bankcards.dto.BankCardPageDto;
+import tk.project.bankcards.dto.BankCardShortInfoDto;
+import tk.project.bankcards.dto.BankCardSummaryDto;
 import tk.project.bankcards.dto.ErrorResponse;
 import tk.project.bankcards.dto.TransferDto;
+import tk.project.bankcards.dto.TransferStatusDto;
 import tk.project.bankcards.dto.UserInfoDto;
 import tk.project.bankcards.entity.BankCardEntity;
+import tk.project.bankcards.entity.LedgerEntryEntity;
+import tk.project.bankcards.entity.Money;
+import tk.project.bankcards.entity.TransferEntity;
 import tk.project.bankcards.entity.UserEntity;
 import tk.project.bankcards.enums.BankCardStatus;
+import tk.project.bankcards.enums.IdempotencyKeyStatus;
+import tk.project.bankcards.enums.LedgerEntryType;
 import tk.project.bankcards.enums.Role;
+import tk.project.bankcards.enums.TransferStatus;
 import tk.project.bankcards.exception.BankCardConflictException;
 import tk.project.bankcards.exception.BankCardNotFoundException;
 import tk.project.bankcards.exception.BankCardStatusNotActiveException;
+import tk.project.bankcards.exception.BankCardTransferConflictException;
+import tk.project.bankcards.exception.IdempotencyKeyConflictException;
+import tk.project.bankcards.exception.InvalidCursorException;
 import tk.project.bankcards.exception.NotEnoughBankCardBalanceException;
 import tk.project.bankcards.exception.UserNotAccessException;
 import tk.project.bankcards.exception.UserNotFoundException;
+import tk.project.bankcards.mapper.TransferMapper;
+import tk.project.bankcards.service.AsyncTransferService;
+import tk.project.bankcards.service.BankCardService;
+import tk.project.bankcards.service.IdempotencyService;
 
 class BankCardIntegrationTest extends BaseIntegrationTest {
 
+  @Autowired private MeterRegistry meterRegistry;
+  @Autowired private IdempotencyService idempotencyService;
+  @Autowired private AsyncTransferService asyncTransferService;
+  @Autowired private BankCardService bankCardService;
+  @Autowired private TransferMapper transferMapper;
+  @Autowired private TransferConfig transferConfig;
+  @Autowired private IdempotencyConfig idempotencyConfig;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
   @Test
   @SneakyThrows
   void createBankCard() {
@@ -73,7 +127,7 @@ class BankCardIntegrationTest extends BaseIntegrationTest {
     assertUserEquals(existingUser, actualCard.owner());
     assertEquals(expectedExpiryDate, actualCard.expiryDate());
     assertEquals(expectedStatus, actualCard.status());
-    assertEquals(expectedBalance, actualCard.balance());
+    assertEquals(0, expectedBalance.compareTo(actualCard.balance()));
   }
 
   @Test
@@ -89,7 +143,7 @@ class BankCardIntegrationTest extends BaseIntegrationTest {
             .owner(existingUser)
             .expiryDate(LocalDate.now().plusMonths(2L))
             .status(BankCardStatus.ACTIVE)
-            .balance(BigDecimal.ONE)
+            .balance(Money.of(BigDecimal.ONE))
             .build();
     bankCardRepository.save(existingCard);
 
@@ -173,7 +227,7 @@ class BankCardIntegrationTest extends BaseIntegrationTest {
             .owner(existingUser)
             .expiryDate(expectedExpiryDate)
             .status(BankCardStatus.ACTIVE)
-            .balance(expectedBalance)
+            .balance(Money.of(expectedBalance))
             .build();
     bankCardRepository.save(existingCard);
 
@@ -220,7 +274,7 @@ class BankCardIntegrationTest extends BaseIntegrationTest {
             .owner(existingUser)
             .expiryDate(LocalDate.now().plusMonths(1L))
             .status(BankCardStatus.EXPIRED)
-            .balance(BigDecimal.valueOf(1454.345))
+            .balance(Money.of(BigDecimal.valueOf(1454.345)))
             .build();
     bankCardRepository.save(existingCard);
 
@@ -294,7 +348,7 @@ class BankCardIntegrationTest extends BaseIntegrationTest {
             .owner(existingUser)
             .expiryDate(expectedExpiryDate)
             .status(BankCardStatus.BLOCKED)
-            .balance(expectedBalance)
+            .balance(Money.of(expectedBalance))
             .build();
     bankCardRepository.save(existingCard);
 
@@ -374,7 +428,7 @@ class BankCardIntegrationTest extends BaseIntegrationTest {
             .owner(existingUser)
             .expiryDate(expectedExpiryDate)
             .status(expectedStatus)
-            .balance(expectedBalance)
+            .balance(Money.of(expectedBalance))
             .build();
     bankCardRepository.save(existingCard);
 
@@ -454,7 +508,7 @@ class BankCardIntegrationTest extends BaseIntegrationTest {
             .owner(existingUser)
             .expiryDate(expectedExpiryDate)
             .status(expectedStatus)
-            .balance(expectedBalance)
+            .balance(Money.of(expectedBalance))
             .build();
     bankCardRepository.save(existingCard);
 
@@ -509,7 +563,7 @@ class BankCardIntegrationTest extends BaseIntegrationTest {
             .owner(otherExistingUser)
             .expiryDate(LocalDate.now().plusMonths(2L))
             .status(BankCardStatus.ACTIVE)
-            .balance(BigDecimal.ONE)
+            .balance(Money.of(BigDecimal.ONE))
             .build();
     bankCardRepository.save(existingCard);
 
@@ -567,109 +621,47 @@ class BankCardIntegrationTest extends BaseIntegrationTest {
 
   @Test
   @SneakyThrows
-  void transferBetweenOwnerCard() {
+  void getBankCardByIdServedFromCache() {
     // GIVEN
     saveExistingUser();
-
-    BigDecimal amountTransfer = BigDecimal.TEN;
-    BigDecimal existingSendingCardBalance = BigDecimal.valueOf(12123.12);
-    BigDecimal expectedSendingCardBalance = existingSendingCardBalance.subtract(amountTransfer);
-    BigDecimal existingReceivingCardBalance = BigDecimal.valueOf(1323123.12);
-    BigDecimal expectedReceivingCardBalance = existingReceivingCardBalance.add(amountTransfer);
-
-    BankCardEntity sendingCard =
-        BankCardEntity.builder()
-            .number(1234_1234_1234_1234L)
-            .owner(existingUser)
-            .expiryDate(LocalDate.now().plusMonths(2L))
-            .status(BankCardStatus.ACTIVE)
-            .balance(existingSendingCardBalance)
-            .build();
-    bankCardRepository.save(sendingCard);
-
-    BankCardEntity receivingCard =
-        BankCardEntity.builder()
-            .number(1234_1234_1234_1235L)
-            .owner(existingUser)
-            .expiryDate(LocalDate.now().plusMonths(2L))
-            .status(BankCardStatus.ACTIVE)
-            .balance(existingReceivingCardBalance)
-            .build();
-    bankCardRepository.save(receivingCard);
-
-    TransferDto transfer =
-        new TransferDto(sendingCard.getId(), receivingCard.getId(), amountTransfer);
+    BankCardEntity existingCard = saveActiveCard(1234_1234_1234_1234L, BigDecimal.TEN);
+    double hitsBefore = bankCardCacheGets("hit");
 
     // WHEN
-    mockMvc
-        .perform(
-            post(endpointsConfig.getBasePath()
-                    + endpointsConfig.getBankCardsPath()
-                    + endpointsConfig.getUserAccess()
-                    + "/transfer-self")
-                .with(httpBasic(existingUser.getUsername(), existingUserPassword))
-                .contentType("application/json")
-                .content(objectMapper.writeValueAsString(transfer)))
-        .andDo(print())
-        .andExpect(status().isOk())
-        .andReturn()
-        .getResponse()
-        .getContentAsString();
+    int statements =
+        countStatements(
+            get(bankCardUserPath(existingCard.getId()))
+                .with(httpBasic(existingUser.getUsername(), existingUserPassword)));
 
     // THEN
-    BankCardEntity actualSendingCard = bankCardRepository.findById(sendingCard.getId()).get();
-    BankCardEntity actualReceivingCard = bankCardRepository.findById(receivingCard.getId()).get();
-
-    assertEquals(
-        expectedSendingCardBalance.setScale(4, RoundingMode.HALF_UP),
-        actualSendingCard.getBalance().setScale(4, RoundingMode.HALF_UP));
-    assertEquals(
-        expectedReceivingCardBalance.setScale(4, RoundingMode.HALF_UP),
-        actualReceivingCard.getBalance().setScale(4, RoundingMode.HALF_UP));
+    assertEquals(0, statements);
+    assertEquals(hitsBefore + 1, bankCardCacheGets("hit"));
   }
 
   @Test
   @SneakyThrows
-  void transferBetweenOwnerCardFailedIfReceivingBankCardNotActive() {
+  void getBankCardByIdFromCacheFailedIfUserNotAccess() {
     // GIVEN
     saveExistingUser();
+    BankCardEntity existingCard = saveActiveCard(1234_1234_1234_1234L, BigDecimal.TEN);
+    getBankCardById(existingCard.getId());
 
-    BankCardEntity sendingCard =
-        BankCardEntity.builder()
-            .number(1234_1234_1234_1234L)
-            .owner(existingUser)
-            .expiryDate(LocalDate.now().plusMonths(2L))
-            .status(BankCardStatus.ACTIVE)
-            .balance(BigDecimal.valueOf(12123.12))
-            .build();
-    bankCardRepository.save(sendingCard);
-
-    BankCardEntity receivingCard =
-        BankCardEntity.builder()
-            .number(1234_1234_1234_1235L)
-            .owner(existingUser)
-            .expiryDate(LocalDate.now().plusMonths(2L))
-            .status(BankCardStatus.BLOCKED)
-            .balance(BigDecimal.valueOf(1323123.12))
+    UserEntity otherExistingUser =
+        UserEntity.builder()
+            .name("existing name")
+            .password(passwordEncoder.encode("pass"))
+            .email("other.existing_email@mail.em")
+            .role(Role.USER)
             .build();
-    bankCardRepository.save(receivingCard);
-
-    TransferDto transfer =
-        new TransferDto(sendingCard.getId(), receivingCard.getId(), BigDecimal.ONE);
+    userRepository.save(otherExistingUser);
 
     // WHEN
     String result =
         mockMvc
             .perform(
-                post(endpointsConfig.getBasePath()
-                        + endpointsConfig.getBankCardsPath()
-                        + endpointsConfig.getUserAccess()
-                        + "/transfer-self")
-                    .with(httpBasic(existingUser.getUsername(), existingUserPassword))
-                    .contentType("application/json")
-                    .content(objectMapper.writeValueAsString(transfer)))
-            .andDo(print())
-            .andExpect(status().isBadRequest())
+                get(bankCardUserPath(existingCard.getId()))
+                    .with(httpBasic(otherExistingUser.getUsername(), "pass")))
+            .andExpect(status().isForbidden())
             .andReturn()
             .getResponse()
             .getContentAsString();
@@ -677,171 +669,1199 @@ class BankCardIntegrationTest extends BaseIntegrationTest {
     ErrorResponse errorResponse = objectMapper.readValue(result, ErrorResponse.class);
 
     // THEN
-    assertEquals(
-        BankCardStatusNotActiveException.class.getSimpleName(), errorResponse.exceptionName());
+    assertEquals(UserNotAccessException.class.getSimpleName(), errorResponse.exceptionName());
   }
 
   @Test
   @SneakyThrows
-  void transferBetweenOwnerCardFailedIfUserNotAccessToReceivingBankCard() {
+  void getBankCardByIdAfterBlockAndActivate() {
     // GIVEN
     saveExistingUser();
+    BankCardEntity existingCard = saveActiveCard(1234_1234_1234_1234L, BigDecimal.TEN);
+    String adminPath =
+        endpointsConfig.getBasePath()
+            + endpointsConfig.getBankCardsPath()
+            + endpointsConfig.getAdminAccess();
+    getBankCardById(existingCard.getId());
 
-    UserEntity otherExistingUser =
-        UserEntity.builder()
-            .name("existing name")
-            .password(passwordEncoder.encode("pass"))
-            .email("other.existing_email@mail.em")
-            .role(Role.USER)
-            .build();
-    userRepository.save(otherExistingUser);
-
-    BankCardEntity sendingCard =
-        BankCardEntity.builder()
-            .number(1234_1234_1234_1234L)
-            .owner(existingUser)
-            .expiryDate(LocalDate.now().plusMonths(2L))
-            .status(BankCardStatus.ACTIVE)
-            .balance(BigDecimal.valueOf(12123.12))
-            .build();
-    bankCardRepository.save(sendingCard);
+    // WHEN
+    mockMvc
+        .perform(
+            patch(adminPath + "/block/" + existingCard.getId())
+                .with(httpBasic(admin.getUsername(), adminPassword)))
+        .andExpect(status().isOk());
+    BankCardStatus statusAfterBlock = getBankCardById(existingCard.getId()).status();
+    mockMvc
+        .perform(
+            patch(adminPath + "/activate/" + existingCard.getId())
+                .with(httpBasic(admin.getUsername(), adminPassword)))
+        .andExpect(status().isOk());
+    BankCardStatus statusAfterActivate = getBankCardById(existingCard.getId()).status();
 
-    BankCardEntity receivingCard =
-        BankCardEntity.builder()
-            .number(1234_1234_1234_1235L)
-            .owner(otherExistingUser)
-            .expiryDate(LocalDate.now().plusMonths(2L))
-            .status(BankCardStatus.ACTIVE)
-            .balance(BigDecimal.valueOf(1323123.12))
-            .build();
-    bankCardRepository.save(receivingCard);
+    // THEN
+    assertEquals(BankCardStatus.BLOCKED, statusAfterBlock);
+    assertEquals(BankCardStatus.ACTIVE, statusAfterActivate);
+  }
 
+  @Test
+  @SneakyThrows
+  void getBankCardByIdAfterTransferAndDelete() {
+    // GIVEN
+    saveExistingUser();
+    BankCardEntity sendingCard = saveActiveCard(1234_1234_1234_1234L, BigDecimal.TEN);
+    BankCardEntity receivingCard = saveActiveCard(1234_1234_1234_1235L, BigDecimal.ONE);
+    getBankCardById(sendingCard.getId());
+    getBankCardById(receivingCard.getId());
     TransferDto transfer =
-        new TransferDto(sendingCard.getId(), receivingCard.getId(), BigDecimal.ONE);
+        new TransferDto(sendingCard.getId(), receivingCard.getId(), BigDecimal.valueOf(3));
 
     // WHEN
-    String result =
-        mockMvc
-            .perform(
-                post(endpointsConfig.getBasePath()
+    mockMvc
+        .perform(
+            post(endpointsConfig.getBasePath()
+                    + endpointsConfig.getBankCardsPath()
+                    + endpointsConfig.getUserAccess()
+                    + "/transfer-self")
+                .with(httpBasic(existingUser.getUsername(), existingUserPassword))
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(transfer)))
+        .andExpect(status().isOk());
+    BigDecimal sendingBalance = getBankCardById(sendingCard.getId()).balance();
+    BigDecimal receivingBalance = getBankCardById(receivingCard.getId()).balance();
+    mockMvc
+        .perform(
+            delete(
+                    endpointsConfig.getBasePath()
                         + endpointsConfig.getBankCardsPath()
-                        + endpointsConfig.getUserAccess()
-                        + "/transfer-self")
-                    .with(httpBasic(existingUser.getUsername(), existingUserPassword))
-                    .contentType("application/json")
-                    .content(objectMapper.writeValueAsString(transfer)))
-            .andDo(print())
-            .andExpect(status().isForbidden())
-            .andReturn()
-            .getResponse()
-            .getContentAsString();
-
-    ErrorResponse errorResponse = objectMapper.readValue(result, ErrorResponse.class);
+                        + endpointsConfig.getAdminAccess()
+                        + "/"
+                        + sendingCard.getId())
+                .with(httpBasic(admin.getUsername(), adminPassword)))
+        .andExpect(status().isOk());
 
     // THEN
-    assertEquals(UserNotAccessException.class.getSimpleName(), errorResponse.exceptionName());
+    assertEquals(0, BigDecimal.valueOf(7).compareTo(sendingBalance));
+    assertEquals(0, BigDecimal.valueOf(4).compareTo(receivingBalance));
+    mockMvc
+        .perform(
+            get(bankCardUserPath(sendingCard.getId()))
+                .with(httpBasic(existingUser.getUsername(), existingUserPassword)))
+        .andExpect(status().isNotFound());
   }
 
   @Test
   @SneakyThrows
-  void transferBetweenOwnerCardFailedIfReceivingBankCardNotFound() {
+  void getBankCardByIdNotModifiedUntilBankCardChanged() {
     // GIVEN
     saveExistingUser();
+    BankCardEntity existingCard = saveActiveCard(1234_1234_1234_1234L, BigDecimal.TEN);
+    MockHttpServletRequestBuilder getCard =
+        get(bankCardUserPath(existingCard.getId()))
+            .with(httpBasic(existingUser.getUsername(), existingUserPassword));
+    String etag =
+        mockMvc
+            .perform(getCard)
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
 
-    BankCardEntity sendingCard =
-        BankCardEntity.builder()
-            .number(1234_1234_1234_1234L)
-            .owner(existingUser)
-            .expiryDate(LocalDate.now().plusMonths(2L))
-            .status(BankCardStatus.ACTIVE)
-            .balance(BigDecimal.valueOf(12123.12))
-            .build();
-    bankCardRepository.save(sendingCard);
+    // WHEN
+    MvcResult notModifiedResult =
+        mockMvc
+            .perform(getCard.header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andReturn();
+    mockMvc
+        .perform(
+            patch(endpointsConfig.getBasePath()
+                    + endpointsConfig.getBankCardsPath()
+                    + endpointsConfig.getAdminAccess()
+                    + "/block/"
+                    + existingCard.getId())
+                .with(httpBasic(admin.getUsername(), adminPassword)))
+        .andExpect(status().isOk());
+    MvcResult modifiedResult =
+        mockMvc
+            .perform(getCard.header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andReturn();
 
-    TransferDto transfer = new TransferDto(sendingCard.getId(), UUID.randomUUID(), BigDecimal.ONE);
+    // THEN
+    assertNotNull(etag);
+    assertEquals(etag, notModifiedResult.getResponse().getHeader(HttpHeaders.ETAG));
+    assertEquals(0, notModifiedResult.getResponse().getContentLength());
+    assertNotEquals(etag, modifiedResult.getResponse().getHeader(HttpHeaders.ETAG));
+    BankCardInfoDto modifiedCard =
+        objectMapper.readValue(
+            modifiedResult.getResponse().getContentAsString(), BankCardInfoDto.class);
+    assertEquals(BankCardStatus.BLOCKED, modifiedCard.status());
+  }
 
-    // WHEN
-    String result =
+  @Test
+  @SneakyThrows
+  void findAllBankCardsByUserIdNotModifiedUntilPageChanged() {
+    // GIVEN
+    saveExistingUser();
+    BankCardEntity sendingCard = saveActiveCard(1234_1234_1234_1234L, BigDecimal.TEN);
+    BankCardEntity receivingCard = saveActiveCard(1234_1234_1234_1235L, BigDecimal.ONE);
+    String userPath =
+        endpointsConfig.getBasePath()
+            + endpointsConfig.getBankCardsPath()
+            + endpointsConfig.getUserAccess();
+    String etag =
         mockMvc
             .perform(
-                post(endpointsConfig.getBasePath()
-                        + endpointsConfig.getBankCardsPath()
-                        + endpointsConfig.getUserAccess()
-                        + "/transfer-self")
-                    .with(httpBasic(existingUser.getUsername(), existingUserPassword))
-                    .contentType("application/json")
-                    .content(objectMapper.writeValueAsString(transfer)))
-            .andDo(print())
-            .andExpect(status().isNotFound())
+                get(userPath).with(httpBasic(existingUser.getUsername(), existingUserPassword)))
+            .andExpect(status().isOk())
             .andReturn()
             .getResponse()
-            .getContentAsString();
+            .getHeader(HttpHeaders.ETAG);
+    MockHttpServletRequestBuilder findCards =
+        get(userPath)
+            .header(HttpHeaders.IF_NONE_MATCH, etag)
+            .with(httpBasic(existingUser.getUsername(), existingUserPassword));
+    TransferDto transfer =
+        new TransferDto(sendingCard.getId(), receivingCard.getId(), BigDecimal.ONE);
 
-    ErrorResponse errorResponse = objectMapper.readValue(result, ErrorResponse.class);
+    // WHEN
+    mockMvc.perform(findCards).andExpect(status().isNotModified());
+    mockMvc
+        .perform(findCards.param("size", "1"))
+        .andExpect(status().isOk())
+        .andExpect(header().exists(HttpHeaders.ETAG));
+    mockMvc
+        .perform(
+            post(userPath + "/transfer-self")
+                .with(httpBasic(existingUser.getUsername(), existingUserPassword))
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(transfer)))
+        .andExpect(status().isOk());
+    MvcResult modifiedResult =
+        mockMvc
+            .perform(
+                get(userPath)
+                    .header(HttpHeaders.IF_NONE_MATCH, etag)
+                    .with(httpBasic(existingUser.getUsername(), existingUserPassword)))
+            .andExpect(status().isOk())
+            .andReturn();
 
     // THEN
-    assertEquals(BankCardNotFoundException.class.getSimpleName(), errorResponse.exceptionName());
+    assertNotNull(etag);
+    assertNotEquals(etag, modifiedResult.getResponse().getHeader(HttpHeaders.ETAG));
+    List<BankCardShortInfoDto> bankCards =
+        objectMapper.readValue(
+            modifiedResult.getResponse().getContentAsString(), new TypeReference<>() {});
+    assertEquals(2, bankCards.size());
   }
 
   @Test
   @SneakyThrows
-  void transferBetweenOwnerCardFailedIfSendingBankCardBalanceNotEnough() {
+  void getBankCardSummaryOfUser() {
     // GIVEN
     saveExistingUser();
-
-    BigDecimal amountTransfer = BigDecimal.valueOf(1765.75);
-    BigDecimal existingSendingCardBalance = amountTransfer.subtract(BigDecimal.TEN);
-
-    BankCardEntity sendingCard =
+    saveActiveCard(1234_1234_1234_1234L, BigDecimal.TEN);
+    BankCardEntity expiringCard = saveActiveCard(1234_1234_1234_1235L, BigDecimal.ONE);
+    expiringCard.setExpiryDate(LocalDate.now().plusDays(5L));
+    bankCardRepository.save(expiringCard);
+    BankCardEntity blockedCard = saveActiveCard(1234_1234_1234_1236L, BigDecimal.valueOf(5));
+    blockedCard.setStatus(BankCardStatus.BLOCKED);
+    blockedCard.setExpiryDate(LocalDate.now().plusDays(1L));
+    bankCardRepository.save(blockedCard);
+    UserEntity otherUser =
+        userRepository.save(
+            UserEntity.builder()
+                .name("other name")
+                .password("password")
+                .email("other_email@mail.em")
+                .role(Role.USER)
+                .build());
+    bankCardRepository.save(
         BankCardEntity.builder()
-            .number(1234_1234_1234_1234L)
-            .owner(existingUser)
-            .expiryDate(LocalDate.now().plusMonths(2L))
+            .number(1234_1234_1234_1237L)
+            .owner(otherUser)
+            .expiryDate(LocalDate.now().plusDays(2L))
             .status(BankCardStatus.ACTIVE)
-            .balance(existingSendingCardBalance)
-            .build();
-    bankCardRepository.save(sendingCard);
-
-    BankCardEntity receivingCard =
-        BankCardEntity.builder()
-            .number(1234_1234_1234_1235L)
-            .owner(existingUser)
-            .expiryDate(LocalDate.now().plusMonths(2L))
-            .status(BankCardStatus.BLOCKED)
-            .balance(BigDecimal.valueOf(1323123.12))
-            .build();
-    bankCardRepository.save(receivingCard);
-
-    TransferDto transfer =
-        new TransferDto(sendingCard.getId(), receivingCard.getId(), amountTransfer);
+            .balance(Money.of(BigDecimal.valueOf(100)))
+            .build());
+    MockHttpServletRequestBuilder getSummary =
+        get(bankCardSummaryPath())
+            .with(httpBasic(existingUser.getUsername(), existingUserPassword));
 
     // WHEN
-    String result =
-        mockMvc
-            .perform(
-                post(endpointsConfig.getBasePath()
-                        + endpointsConfig.getBankCardsPath()
-                        + endpointsConfig.getUserAccess()
-                        + "/transfer-self")
-                    .with(httpBasic(existingUser.getUsername(), existingUserPassword))
-                    .contentType("application/json")
-                    .content(objectMapper.writeValueAsString(transfer)))
-            .andDo(print())
-            .andExpect(status().isForbidden())
-            .andReturn()
-            .getResponse()
-            .getContentAsString();
-
-    ErrorResponse errorResponse = objectMapper.readValue(result, ErrorResponse.class);
+    int cachedStatements = countStatements(getSummary);
+    bankCardSummaryCache.invalidateAll();
+    SqlStatementCounter.reset();
+    BankCardSummaryDto summary = getBankCardSummary();
+    int loadStatements = SqlStatementCounter.count();
 
     // THEN
+    assertEquals(0, cachedStatements);
+    assertEquals(1, loadStatements);
+    assertEquals(3, summary.cardCount());
+    assertEquals(0, BigDecimal.valueOf(16).compareTo(summary.totalBalance()));
     assertEquals(
-        NotEnoughBankCardBalanceException.class.getSimpleName(), errorResponse.exceptionName());
+        Map.of(BankCardStatus.ACTIVE, 2L, BankCardStatus.BLOCKED, 1L, BankCardStatus.EXPIRED, 0L),
+        summary.cardCountByStatus());
+    assertEquals(LocalDate.now().plusDays(5L), summary.nextExpiryDate());
   }
 
   @Test
   @SneakyThrows
-  void transferBetweenOwnerCardFailedIfSendingBankCardNotActive() {
+  void getBankCardSummaryIgnoresExpiredActiveCardInNextExpiryDate() {
+    // GIVEN
+    saveExistingUser();
+    // карта осталась в статусе ACTIVE после окончания срока действия
+    BankCardEntity expiredCard = saveActiveCard(1234_1234_1234_1234L, BigDecimal.TEN);
+    expiredCard.setExpiryDate(LocalDate.now().minusDays(1L));
+    bankCardRepository.save(expiredCard);
+    BankCardEntity expiringCard = saveActiveCard(1234_1234_1234_1235L, BigDecimal.ONE);
+    expiringCard.setExpiryDate(LocalDate.now().plusDays(3L));
+    bankCardRepository.save(expiringCard);
+
+    // WHEN
+    BankCardSummaryDto summary = getBankCardSummary();
+
+    // THEN
+    assertEquals(2, summary.cardCount());
+    assertEquals(0, BigDecimal.valueOf(11).compareTo(summary.totalBalance()));
+    assertEquals(LocalDate.now().plusDays(3L), summary.nextExpiryDate());
+  }
+
+  @Test
+  @SneakyThrows
+  void getBankCardSummaryAfterCreateBlockAndDelete() {
+    // GIVEN
+    saveExistingUser();
+    BankCardEntity existingCard = saveActiveCard(1234_1234_1234_1234L, BigDecimal.TEN);
+    String adminPath =
+        endpointsConfig.getBasePath()
+            + endpointsConfig.getBankCardsPath()
+            + endpointsConfig.getAdminAccess();
+    BankCardCreateDto newCard =
+        new BankCardCreateDto(
+            1234_1234_1234_1235L,
+            existingUser.getId(),
+            LocalDate.now().plusMonths(1L),
+            BigDecimal.ONE);
+    getBankCardSummary();
+
+    // WHEN
+    mockMvc
+        .perform(
+            post(adminPath)
+                .with(httpBasic(admin.getUsername(), adminPassword))
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(newCard)))
+        .andExpect(status().isCreated());
+    BankCardSummaryDto summaryAfterCreate = getBankCardSummary();
+    mockMvc
+        .perform(
+            patch(adminPath + "/block/" + existingCard.getId())
+                .with(httpBasic(admin.getUsername(), adminPassword)))
+        .andExpect(status().isOk());
+    BankCardSummaryDto summaryAfterBlock = getBankCardSummary();
+    mockMvc
+        .perform(
+            delete(adminPath + "/" + existingCard.getId())
+                .with(httpBasic(admin.getUsername(), adminPassword)))
+        .andExpect(status().isOk());
+    BankCardSummaryDto summaryAfterDelete = getBankCardSummary();
+
+    // THEN
+    assertEquals(2, summaryAfterCreate.cardCount());
+    assertEquals(0, BigDecimal.valueOf(11).compareTo(summaryAfterCreate.totalBalance()));
+    assertEquals(1L, summaryAfterBlock.cardCountByStatus().get(BankCardStatus.BLOCKED));
+    assertEquals(1L, summaryAfterBlock.cardCountByStatus().get(BankCardStatus.ACTIVE));
+    assertEquals(1, summaryAfterDelete.cardCount());
+    assertEquals(0, BigDecimal.ONE.compareTo(summaryAfterDelete.totalBalance()));
+    assertEquals(0L, summaryAfterDelete.cardCountByStatus().get(BankCardStatus.BLOCKED));
+  }
+
+  @Test
+  @SneakyThrows
+  void findAllBankCardsByCursor() {
+    // GIVEN
+    saveExistingUser();
+    for (int i = 4; i >= 0; i--) {
+      saveActiveCard(1234_1234_1234_1230L + i, BigDecimal.ONE);
+    }
+    String path =
+        endpointsConfig.getBasePath()
+            + endpointsConfig.getBankCardsPath()
+            + endpointsConfig.getAdminAccess()
+            + "/cursor";
+
+    // WHEN
+    BankCardPageDto firstPage = getBankCardPage(path, null, admin.getUsername(), adminPassword);
+    BankCardPageDto secondPage =
+        getBankCardPage(path, firstPage.nextCursor(), admin.getUsername(), adminPassword);
+    BankCardPageDto lastPage =
+        getBankCardPage(path, secondPage.nextCursor(), admin.getUsername(), adminPassword);
+
+    // THEN
+    assertEquals(
+        List.of("**** **** **** 1230", "**** **** **** 1231"),
+        firstPage.content().stream().map(BankCardShortInfoDto::number).toList());
+    assertEquals(
+        List.of("**** **** **** 1232", "**** **** **** 1233"),
+        secondPage.content().stream().map(BankCardShortInfoDto::number).toList());
+    assertEquals(
+        List.of("**** **** **** 1234"),
+        lastPage.content().stream().map(BankCardShortInfoDto::number).toList());
+    assertNull(lastPage.nextCursor());
+  }
+
+  @Test
+  @SneakyThrows
+  void findAllBankCardsByUserIdAndCursor() {
+    // GIVEN
+    saveExistingUser();
+    BankCardEntity richCard = saveActiveCard(1234_1234_1234_1230L, BigDecimal.valueOf(300));
+    BankCardEntity firstEqualCard = saveActiveCard(1234_1234_1234_1231L, BigDecimal.TEN);
+    BankCardEntity secondEqualCard = saveActiveCard(1234_1234_1234_1232L, BigDecimal.TEN);
+    BankCardEntity poorCard = saveActiveCard(1234_1234_1234_1233L, BigDecimal.ONE);
+    String path =
+        endpointsConfig.getBasePath()
+            + endpointsConfig.getBankCardsPath()
+            + endpointsConfig.getUserAccess()
+            + "/cursor";
+
+    // WHEN
+    BankCardPageDto firstPage =
+        getBankCardPage(path, null, existingUser.getUsername(), existingUserPassword);
+    BankCardPageDto lastPage =
+        getBankCardPage(
+            path, firstPage.nextCursor(), existingUser.getUsername(), existingUserPassword);
+
+    // THEN
+    List<UUID> firstPageIds = firstPage.content().stream().map(BankCardShortInfoDto::id).toList();
+    List<UUID> lastPageIds = lastPage.content().stream().map(BankCardShortInfoDto::id).toList();
+    assertEquals(richCard.getId(), firstPageIds.get(0));
+    assertEquals(
+        Set.of(firstEqualCard.getId(), secondEqualCard.getId()),
+        Set.of(firstPageIds.get(1), lastPageIds.get(0)));
+    assertEquals(poorCard.getId(), lastPageIds.get(1));
+    assertNull(lastPage.nextCursor());
+  }
+
+  @Test
+  @SneakyThrows
+  void findAllBankCardsExecutesOneStatementPerPage() {
+    // GIVEN
+    saveExistingUser();
+    for (int i = 0; i < 3; i++) {
+      UserEntity owner =
+          userRepository.save(
+              UserEntity.builder()
+                  .name("owner name")
+                  .password("password")
+                  .email("owner_" + i + "@mail.em")
+                  .role(Role.USER)
+                  .build());
+      bankCardRepository.save(
+          BankCardEntity.builder()
+              .number(1234_1234_1234_1230L + i)
+              .owner(owner)
+              .expiryDate(LocalDate.now().plusMonths(2L))
+              .status(BankCardStatus.ACTIVE)
+              .balance(Money.of(BigDecimal.ONE))
+              .build());
+    }
+    saveActiveCard(1234_1234_1234_1239L, BigDecimal.TEN);
+    String adminPath =
+        endpointsConfig.getBasePath()
+            + endpointsConfig.getBankCardsPath()
+            + endpointsConfig.getAdminAccess();
+    String userPath =
+        endpointsConfig.getBasePath()
+            + endpointsConfig.getBankCardsPath()
+            + endpointsConfig.getUserAccess();
+
+    // WHEN
+    int adminPageStatements =
+        countStatements(get(adminPath).with(httpBasic(admin.getUsername(), adminPassword)));
+    int adminCursorStatements =
+        countStatements(
+            get(adminPath + "/cursor").with(httpBasic(admin.getUsername(), adminPassword)));
+    int userPageStatements =
+        countStatements(
+            get(userPath).with(httpBasic(existingUser.getUsername(), existingUserPassword)));
+    int userCursorStatements =
+        countStatements(
+            get(userPath + "/cursor")
+                .with(httpBasic(existingUser.getUsername(), existingUserPassword)));
+
+    // THEN
+    assertEquals(1, adminPageStatements);
+    assertEquals(1, adminCursorStatements);
+    assertEquals(1, userPageStatements);
+    assertEquals(1, userCursorStatements);
+  }
+
+  @Test
+  @SneakyThrows
+  void exportBankCardsAsNdjson() {
+    // GIVEN
+    saveExistingUser();
+    BankCardEntity firstCard = saveActiveCard(1234_1234_1234_1231L, new BigDecimal("12.5"));
+    BankCardEntity secondCard = saveActiveCard(1234_1234_1234_1230L, BigDecimal.TEN);
+
+    // WHEN
+    byte[] result = exportBankCards("NDJSON", false, "application/x-ndjson;charset=UTF-8");
+
+    // THEN
+    List<Map<String, Object>> rows =
+        new String(result, StandardCharsets.UTF_8)
+            .lines()
+            .map(this::readJsonMap)
+            .toList();
+    assertEquals(2, rows.size());
+    assertEquals(secondCard.getId().toString(), rows.get(0).get("id"));
+    assertEquals("**** **** **** 1230", rows.get(0).get("number"));
+    assertEquals(existingUser.getId().toString(), rows.get(0).get("ownerId"));
+    assertEquals(firstCard.getId().toString(), rows.get(1).get("id"));
+    assertEquals("ACTIVE", rows.get(1).get("status"));
+    assertEquals(
+        0,
+        new BigDecimal("12.5").compareTo(new BigDecimal(rows.get(1).get("balance").toString())));
+  }
+
+  @Test
+  @SneakyThrows
+  void exportBankCardsAsGzippedCsv() {
+    // GIVEN
+    saveExistingUser();
+    BankCardEntity card = saveActiveCard(1234_1234_1234_1234L, BigDecimal.ONE);
+
+    // WHEN
+    byte[] result = exportBankCards("CSV", true, "text/csv;charset=UTF-8");
+
+    // THEN
+    List<String> lines;
+    try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(result))) {
+      lines = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+    }
+    assertEquals(
+        List.of(
+            "id,number,ownerId,expiryDate,status,balance",
+            String.join(
+                ",",
+                card.getId().toString(),
+                "**** **** **** 1234",
+                existingUser.getId().toString(),
+                card.getExpiryDate().format(DateTimeFormatter.ofPattern("dd-MM-yyyy")),
+                "ACTIVE",
+                "1.0000")),
+        lines);
+  }
+
+  @Test
+  @SneakyThrows
+  void findAllBankCardsByCursorFailedIfCursorInvalid() {
+    // WHEN
+    String result =
+        mockMvc
+            .perform(
+                get(endpointsConfig.getBasePath()
+                        + endpointsConfig.getBankCardsPath()
+                        + endpointsConfig.getAdminAccess()
+                        + "/cursor")
+                    .param("cursor", "invalid")
+                    .with(httpBasic(admin.getUsername(), adminPassword)))
+            .andDo(print())
+            .andExpect(status().isBadRequest())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    ErrorResponse errorResponse = objectMapper.readValue(result, ErrorResponse.class);
+
+    // THEN
+    assertEquals(InvalidCursorException.class.getSimpleName(), errorResponse.exceptionName());
+  }
+
+  @Test
+  @SneakyThrows
+  void transferBetweenOwnerCard() {
+    // GIVEN
+    saveExistingUser();
+
+    BigDecimal amountTransfer = BigDecimal.TEN;
+    BigDecimal existingSendingCardBalance = BigDecimal.valueOf(12123.12);
+    BigDecimal expectedSendingCardBalance = existingSendingCardBalance.subtract(amountTransfer);
+    BigDecimal existingReceivingCardBalance = BigDecimal.valueOf(1323123.12);
+    BigDecimal expectedReceivingCardBalance = existingReceivingCardBalance.add(amountTransfer);
+
+    BankCardEntity sendingCard =
+        BankCardEntity.builder()
+            .number(1234_1234_1234_1234L)
+            .owner(existingUser)
+            .expiryDate(LocalDate.now().plusMonths(2L))
+            .status(BankCardStatus.ACTIVE)
+            .balance(Money.of(existingSendingCardBalance))
+            .build();
+    bankCardRepository.save(sendingCard);
+
+    BankCardEntity receivingCard =
+        BankCardEntity.builder()
+            .number(1234_1234_1234_1235L)
+            .owner(existingUser)
+            .expiryDate(LocalDate.now().plusMonths(2L))
+            .status(BankCardStatus.ACTIVE)
+            .balance(Money.of(existingReceivingCardBalance))
+            .build();
+    bankCardRepository.save(receivingCard);
+
+    TransferDto transfer =
+        new TransferDto(sendingCard.getId(), receivingCard.getId(), amountTransfer);
+
+    // WHEN
+    mockMvc
+        .perform(
+            post(endpointsConfig.getBasePath()
+                    + endpointsConfig.getBankCardsPath()
+                    + endpointsConfig.getUserAccess()
+                    + "/transfer-self")
+                .with(httpBasic(existingUser.getUsername(), existingUserPassword))
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(transfer)))
+        .andDo(print())
+        .andExpect(status().isOk())
+        .andReturn()
+        .getResponse()
+        .getContentAsString();
+
+    // THEN
+    BankCardEntity actualSendingCard = bankCardRepository.findById(sendingCard.getId()).get();
+    BankCardEntity actualReceivingCard = bankCardRepository.findById(receivingCard.getId()).get();
+
+    assertEquals(
+        expectedSendingCardBalance.setScale(4, RoundingMode.HALF_UP),
+        actualSendingCard.getBalance().toBigDecimal().setScale(4, RoundingMode.HALF_UP));
+    assertEquals(
+        expectedReceivingCardBalance.setScale(4, RoundingMode.HALF_UP),
+        actualReceivingCard.getBalance().toBigDecimal().setScale(4, RoundingMode.HALF_UP));
+
+    Map<LedgerEntryType, LedgerEntryEntity> ledgerEntries =
+        ledgerEntryRepository.findAll().stream()
+            .collect(Collectors.toMap(LedgerEntryEntity::getEntryType, Function.identity()));
+    assertEquals(2, ledgerEntries.size());
+    assertEquals(sendingCard.getId(), ledgerEntries.get(LedgerEntryType.DEBIT).getCardId());
+    assertEquals(receivingCard.getId(), ledgerEntries.get(LedgerEntryType.CREDIT).getCardId());
+    assertEquals(
+        ledgerEntries.get(LedgerEntryType.DEBIT).getTransferId(),
+        ledgerEntries.get(LedgerEntryType.CREDIT).getTransferId());
+    assertEquals(
+        Money.of(amountTransfer), ledgerEntries.get(LedgerEntryType.DEBIT).getAmount());
+  }
+
+  @Test
+  @SneakyThrows
+  void transferBetweenOwnerCardWithMaxAmountRecordedInLedger() {
+    // GIVEN
+    saveExistingUser();
+
+    BigDecimal amountTransfer = new BigDecimal("99999999999999.9999");
+    BankCardEntity sendingCard = saveActiveCard(1234_1234_1234_1234L, amountTransfer);
+    BankCardEntity receivingCard = saveActiveCard(1234_1234_1234_1235L, BigDecimal.ZERO);
+    TransferDto transfer =
+        new TransferDto(sendingCard.getId(), receivingCard.getId(), amountTransfer);
+
+    // WHEN
+    mockMvc
+        .perform(
+            post(endpointsConfig.getBasePath()
+                    + endpointsConfig.getBankCardsPath()
+                    + endpointsConfig.getUserAccess()
+                    + "/transfer-self")
+                .with(httpBasic(existingUser.getUsername(), existingUserPassword))
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(transfer)))
+        .andExpect(status().isOk());
+
+    // THEN
+    assertEquals(
+        Money.of(amountTransfer),
+        bankCardRepository.findById(receivingCard.getId()).get().getBalance());
+    assertTrue(
+        ledgerEntryRepository.findAll().stream()
+            .allMatch(entry -> entry.getAmount().equals(Money.of(amountTransfer))));
+  }
+
+  @Test
+  @SneakyThrows
+  void transferBetweenOwnerCardWithIdempotencyKeyAppliedOnce() {
+    // GIVEN
+    saveExistingUser();
+
+    BigDecimal amountTransfer = BigDecimal.TEN;
+    BankCardEntity sendingCard = saveActiveCard(1234_1234_1234_1234L, BigDecimal.valueOf(100));
+    BankCardEntity receivingCard = saveActiveCard(1234_1234_1234_1235L, BigDecimal.valueOf(100));
+
+    TransferDto transfer =
+        new TransferDto(sendingCard.getId(), receivingCard.getId(), amountTransfer);
+    String idempotencyKey = UUID.randomUUID().toString();
+
+    // WHEN
+    for (int i = 0; i < 3; i++) {
+      mockMvc
+          .perform(
+              post(endpointsConfig.getBasePath()
+                      + endpointsConfig.getBankCardsPath()
+                      + endpointsConfig.getUserAccess()
+                      + "/transfer-self")
+                  .with(httpBasic(existingUser.getUsername(), existingUserPassword))
+                  .header("Idempotency-Key", idempotencyKey)
+                  .contentType("application/json")
+                  .content(objectMapper.writeValueAsString(transfer)))
+          .andDo(print())
+          .andExpect(status().isOk());
+    }
+
+    // THEN
+    BankCardEntity actualSendingCard = bankCardRepository.findById(sendingCard.getId()).get();
+    BankCardEntity actualReceivingCard = bankCardRepository.findById(receivingCard.getId()).get();
+
+    assertEquals(Money.of(BigDecimal.valueOf(90)), actualSendingCard.getBalance());
+    assertEquals(Money.of(BigDecimal.valueOf(110)), actualReceivingCard.getBalance());
+    assertEquals(2, ledgerEntryRepository.count());
+    assertEquals(
+        IdempotencyKeyStatus.COMPLETED,
+        idempotencyKeyRepository.findAll().stream().findFirst().orElseThrow().getStatus());
+  }
+
+  @Test
+  @SneakyThrows
+  void transferBetweenOwnerCardFailedIfIdempotencyKeyUsedForOtherTransfer() {
+    // GIVEN
+    saveExistingUser();
+
+    BankCardEntity sendingCard = saveActiveCard(1234_1234_1234_1234L, BigDecimal.valueOf(100));
+    BankCardEntity receivingCard = saveActiveCard(1234_1234_1234_1235L, BigDecimal.valueOf(100));
+    String idempotencyKey = UUID.randomUUID().toString();
+
+    mockMvc
+        .perform(
+            post(endpointsConfig.getBasePath()
+                    + endpointsConfig.getBankCardsPath()
+                    + endpointsConfig.getUserAccess()
+                    + "/transfer-self")
+                .with(httpBasic(existingUser.getUsername(), existingUserPassword))
+                .header("Idempotency-Key", idempotencyKey)
+                .contentType("application/json")
+                .content(
+                    objectMapper.writeValueAsString(
+                        new TransferDto(
+                            sendingCard.getId(), receivingCard.getId(), BigDecimal.TEN))))
+        .andExpect(status().isOk());
+
+    TransferDto otherTransfer =
+        new TransferDto(sendingCard.getId(), receivingCard.getId(), BigDecimal.ONE);
+
+    // WHEN
+    String result =
+        mockMvc
+            .perform(
+                post(endpointsConfig.getBasePath()
+                        + endpointsConfig.getBankCardsPath()
+                        + endpointsConfig.getUserAccess()
+                        + "/transfer-self")
+                    .with(httpBasic(existingUser.getUsername(), existingUserPassword))
+                    .header("Idempotency-Key", idempotencyKey)
+                    .contentType("application/json")
+                    .content(objectMapper.writeValueAsString(otherTransfer)))
+            .andDo(print())
+            .andExpect(status().isConflict())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    ErrorResponse errorResponse = objectMapper.readValue(result, ErrorResponse.class);
+
+    // THEN
+    assertEquals(
+        IdempotencyKeyConflictException.class.getSimpleName(), errorResponse.exceptionName());
+    assertEquals(
+        Money.of(BigDecimal.valueOf(90)),
+        bankCardRepository.findById(sendingCard.getId()).get().getBalance());
+  }
+
+  @Test
+  @SneakyThrows
+  void transferBetweenOwnerCardWithIdempotencyKeyTreatsEqualAmountsAsSameRequest() {
+    // GIVEN
+    saveExistingUser();
+
+    BankCardEntity sendingCard = saveActiveCard(1234_1234_1234_1234L, BigDecimal.valueOf(100));
+    BankCardEntity receivingCard = saveActiveCard(1234_1234_1234_1235L, BigDecimal.valueOf(100));
+    String idempotencyKey = UUID.randomUUID().toString();
+
+    // WHEN
+    for (BigDecimal amount : List.of(new BigDecimal("10"), new BigDecimal("10.00"))) {
+      mockMvc
+          .perform(
+              transferRequest(
+                  new TransferDto(sendingCard.getId(), receivingCard.getId(), amount),
+                  idempotencyKey))
+          .andDo(print())
+          .andExpect(status().isOk());
+    }
+
+    // THEN
+    assertEquals(
+        Money.of(BigDecimal.valueOf(90)),
+        bankCardRepository.findById(sendingCard.getId()).get().getBalance());
+    assertEquals(2, ledgerEntryRepository.count());
+  }
+
+  @Test
+  @SneakyThrows
+  void transferBetweenOwnerCardReclaimsIdempotencyKeyLeftByCrashedRequest() {
+    // GIVEN
+    saveExistingUser();
+
+    BankCardEntity sendingCard = saveActiveCard(1234_1234_1234_1234L, BigDecimal.valueOf(100));
+    BankCardEntity receivingCard = saveActiveCard(1234_1234_1234_1235L, BigDecimal.valueOf(100));
+    TransferDto transfer =
+        new TransferDto(sendingCard.getId(), receivingCard.getId(), BigDecimal.TEN);
+    String idempotencyKey = UUID.randomUUID().toString();
+
+    // запрос падает, не дойдя до перевода, и оставляет ключ в статусе IN_PROGRESS
+    assertThrows(
+        AssertionError.class,
+        () ->
+            idempotencyService.execute(
+                existingUser.getId(),
+                idempotencyKey,
+                transfer,
+                onCompleted -> {
+                  throw new AssertionError("crash");
+                }));
+    mockMvc.perform(transferRequest(transfer, idempotencyKey)).andExpect(status().isConflict());
+
+    jdbcTemplate.update(
+        "UPDATE idempotency_keys SET create_date_time = ?",
+        Timestamp.from(Instant.now().minus(idempotencyConfig.getInProgressTimeout())));
+
+    // WHEN
+    mockMvc
+        .perform(transferRequest(transfer, idempotencyKey))
+        .andDo(print())
+        .andExpect(status().isOk());
+
+    // THEN
+    assertEquals(
+        Money.of(BigDecimal.valueOf(90)),
+        bankCardRepository.findById(sendingCard.getId()).get().getBalance());
+    assertEquals(
+        IdempotencyKeyStatus.COMPLETED,
+        idempotencyKeyRepository.findAll().stream().findFirst().orElseThrow().getStatus());
+  }
+
+  @Test
+  @SneakyThrows
+  void transferBetweenOwnerCardAsync() {
+    // GIVEN
+    saveExistingUser();
+
+    BankCardEntity sendingCard = saveActiveCard(1234_1234_1234_1234L, BigDecimal.valueOf(100));
+    BankCardEntity receivingCard = saveActiveCard(1234_1234_1234_1235L, BigDecimal.valueOf(100));
+    TransferDto transfer =
+        new TransferDto(sendingCard.getId(), receivingCard.getId(), BigDecimal.TEN);
+
+    // WHEN
+    String result =
+        mockMvc
+            .perform(
+                post(endpointsConfig.getBasePath()
+                        + endpointsConfig.getBankCardsPath()
+                        + endpointsConfig.getUserAccess()
+                        + "/transfer-self/async")
+                    .with(httpBasic(existingUser.getUsername(), existingUserPassword))
+                    .contentType("application/json")
+                    .content(objectMapper.writeValueAsString(transfer)))
+            .andDo(print())
+            .andExpect(status().isAccepted())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    TransferStatusDto submitted = objectMapper.readValue(result, TransferStatusDto.class);
+    TransferStatusDto actualTransfer = awaitTransferProcessed(submitted.id());
+
+    // THEN
+    assertEquals(TransferStatus.PENDING, submitted.status());
+    assertEquals(TransferStatus.COMPLETED, actualTransfer.status());
+    assertEquals(
+        Money.of(BigDecimal.valueOf(90)),
+        bankCardRepository.findById(sendingCard.getId()).get().getBalance());
+    assertEquals(
+        Money.of(BigDecimal.valueOf(110)),
+        bankCardRepository.findById(receivingCard.getId()).get().getBalance());
+  }
+
+  @Test
+  void transferBetweenOwnerCardAsyncRecoveredAfterWorkerCrash() {
+    // GIVEN
+    saveExistingUser();
+
+    BankCardEntity sendingCard = saveActiveCard(1234_1234_1234_1234L, BigDecimal.valueOf(100));
+    BankCardEntity receivingCard = saveActiveCard(1234_1234_1234_1235L, BigDecimal.valueOf(100));
+    TransferDto transfer =
+        new TransferDto(sendingCard.getId(), receivingCard.getId(), BigDecimal.TEN);
+
+    // обработчик забрал перевод и упал, не выполнив его
+    TransferEntity abandoned = transferMapper.toTransferEntity(transfer);
+    abandoned.setOwner(existingUser);
+    abandoned.setStatus(TransferStatus.PROCESSING);
+    abandoned = transferRepository.save(abandoned);
+    jdbcTemplate.update(
+        "UPDATE transfers SET update_date_time = ?",
+        Timestamp.from(
+            Instant.now().minus(transferConfig.getAsync().getProcessingTimeout()).minusSeconds(1)));
+    Long abandonedVersion = abandoned.getVersion();
+    UUID transferId = abandoned.getId();
+
+    // WHEN
+    asyncTransferService.recoverStaleProcessing();
+    TransferStatusDto actualTransfer = awaitTransferProcessed(transferId);
+
+    // THEN
+    assertEquals(TransferStatus.COMPLETED, actualTransfer.status());
+    assertEquals(
+        Money.of(BigDecimal.valueOf(90)),
+        bankCardRepository.findById(sendingCard.getId()).get().getBalance());
+
+    // упавший обработчик не может завершить перевод по потерянному захвату
+    assertThrows(
+        BankCardTransferConflictException.class,
+        () ->
+            bankCardService.transferBetweenOwnerCard(
+                transfer,
+                existingUser,
+                () -> asyncTransferService.markCompleted(transferId, abandonedVersion)));
+    assertEquals(
+        Money.of(BigDecimal.valueOf(90)),
+        bankCardRepository.findById(sendingCard.getId()).get().getBalance());
+  }
+
+  @Test
+  @SneakyThrows
+  void transferBetweenOwnerCardAsyncFailedIfSendingBankCardBalanceNotEnough() {
+    // GIVEN
+    saveExistingUser();
+
+    BankCardEntity sendingCard = saveActiveCard(1234_1234_1234_1234L, BigDecimal.ONE);
+    BankCardEntity receivingCard = saveActiveCard(1234_1234_1234_1235L, BigDecimal.ONE);
+    TransferDto transfer =
+        new TransferDto(sendingCard.getId(), receivingCard.getId(), BigDecimal.TEN);
+
+    // WHEN
+    String result =
+        mockMvc
+            .perform(
+                post(endpointsConfig.getBasePath()
+                        + endpointsConfig.getBankCardsPath()
+                        + endpointsConfig.getUserAccess()
+                        + "/transfer-self/async")
+                    .with(httpBasic(existingUser.getUsername(), existingUserPassword))
+                    .contentType("application/json")
+                    .content(objectMapper.writeValueAsString(transfer)))
+            .andExpect(status().isAccepted())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    TransferStatusDto actualTransfer =
+        awaitTransferProcessed(objectMapper.readValue(result, TransferStatusDto.class).id());
+
+    // THEN
+    assertEquals(TransferStatus.FAILED, actualTransfer.status());
+    assertNotNull(actualTransfer.errorMessage());
+    assertEquals(
+        0,
+        BigDecimal.ONE.compareTo(
+            bankCardRepository.findById(sendingCard.getId()).get().getBalance().toBigDecimal()));
+  }
+
+  @Test
+  void transferBetweenOwnerCardAsyncFailedWithTruncatedErrorMessage() {
+    // GIVEN
+    saveExistingUser();
+
+    BankCardEntity sendingCard = saveActiveCard(1234_1234_1234_1234L, BigDecimal.ONE);
+    BankCardEntity receivingCard = saveActiveCard(1234_1234_1234_1235L, BigDecimal.ONE);
+    TransferEntity claimed =
+        transferMapper.toTransferEntity(
+            new TransferDto(sendingCard.getId(), receivingCard.getId(), BigDecimal.TEN));
+    claimed.setOwner(existingUser);
+    claimed.setStatus(TransferStatus.PROCESSING);
+    claimed = transferRepository.save(claimed);
+
+    // WHEN
+    asyncTransferService.markFailed(
+        claimed.getId(), claimed.getVersion(), "x".repeat(TransferEntity.ERROR_MESSAGE_LENGTH * 2));
+
+    // THEN
+    TransferEntity actualTransfer = transferRepository.findById(claimed.getId()).get();
+    assertEquals(TransferStatus.FAILED, actualTransfer.getStatus());
+    assertEquals(TransferEntity.ERROR_MESSAGE_LENGTH, actualTransfer.getErrorMessage().length());
+  }
+
+  @Test
+  @SneakyThrows
+  void transferBetweenOwnerCardFailedIfReceivingBankCardNotActive() {
+    // GIVEN
+    saveExistingUser();
+
+    BankCardEntity sendingCard =
+        BankCardEntity.builder()
+            .number(1234_1234_1234_1234L)
+            .owner(existingUser)
+            .expiryDate(LocalDate.now().plusMonths(2L))
+            .status(BankCardStatus.ACTIVE)
+            .balance(Money.of(BigDecimal.valueOf(12123.12)))
+            .build();
+    bankCardRepository.save(sendingCard);
+
+    BankCardEntity receivingCard =
+        BankCardEntity.builder()
+            .number(1234_1234_1234_1235L)
+            .owner(existingUser)
+            .expiryDate(LocalDate.now().plusMonths(2L))
+            .status(BankCardStatus.BLOCKED)
+            .balance(Money.of(BigDecimal.valueOf(1323123.12)))
+            .build();
+    bankCardRepository.save(receivingCard);
+
+    TransferDto transfer =
+        new TransferDto(sendingCard.getId(), receivingCard.getId(), BigDecimal.ONE);
+
+    // WHEN
+    String result =
+        mockMvc
+            .perform(
+                post(endpointsConfig.getBasePath()
+                        + endpointsConfig.getBankCardsPath()
+                        + endpointsConfig.getUserAccess()
+                        + "/transfer-self")
+                    .with(httpBasic(existingUser.getUsername(), existingUserPassword))
+                    .contentType("application/json")
+                    .content(objectMapper.writeValueAsString(transfer)))
+            .andDo(print())
+            .andExpect(status().isBadRequest())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    ErrorResponse errorResponse = objectMapper.readValue(result, ErrorResponse.class);
+
+    // THEN
+    assertEquals(
+        BankCardStatusNotActiveException.class.getSimpleName(), errorResponse.exceptionName());
+  }
+
+  @Test
+  @SneakyThrows
+  void transferBetweenOwnerCardFailedIfUserNotAccessToReceivingBankCard() {
+    // GIVEN
+    saveExistingUser();
+
+    UserEntity otherExistingUser =
+        UserEntity.builder()
+            .name("existing name")
+            .password(passwordEncoder.encode("pass"))
+            .email("other.existing_email@mail.em")
+            .role(Role.USER)
+            .build();
+    userRepository.save(otherExistingUser);
+
+    BankCardEntity sendingCard =
+        BankCardEntity.builder()
+            .number(1234_1234_1234_1234L)
+            .owner(existingUser)
+            .expiryDate(LocalDate.now().plusMonths(2L))
+            .status(BankCardStatus.ACTIVE)
+            .balance(Money.of(BigDecimal.valueOf(12123.12)))
+            .build();
+    bankCardRepository.save(sendingCard);
+
+    BankCardEntity receivingCard =
+        BankCardEntity.builder()
+            .number(1234_1234_1234_1235L)
+            .owner(otherExistingUser)
+            .expiryDate(LocalDate.now().plusMonths(2L))
+            .status(BankCardStatus.ACTIVE)
+            .balance(Money.of(BigDecimal.valueOf(1323123.12)))
+            .build();
+    bankCardRepository.save(receivingCard);
+
+    TransferDto transfer =
+        new TransferDto(sendingCard.getId(), receivingCard.getId(), BigDecimal.ONE);
+
+    // WHEN
+    String result =
+        mockMvc
+            .perform(
+                post(endpointsConfig.getBasePath()
+                        + endpointsConfig.getBankCardsPath()
+                        + endpointsConfig.getUserAccess()
+                        + "/transfer-self")
+                    .with(httpBasic(existingUser.getUsername(), existingUserPassword))
+                    .contentType("application/json")
+                    .content(objectMapper.writeValueAsString(transfer)))
+            .andDo(print())
+            .andExpect(status().isForbidden())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    ErrorResponse errorResponse = objectMapper.readValue(result, ErrorResponse.class);
+
+    // THEN
+    assertEquals(UserNotAccessException.class.getSimpleName(), errorResponse.exceptionName());
+  }
+
+  @Test
+  @SneakyThrows
+  void transferBetweenOwnerCardFailedIfReceivingBankCardNotFound() {
+    // GIVEN
+    saveExistingUser();
+
+    BankCardEntity sendingCard =
+        BankCardEntity.builder()
+            .number(1234_1234_1234_1234L)
+            .owner(existingUser)
+            .expiryDate(LocalDate.now().plusMonths(2L))
+            .status(BankCardStatus.ACTIVE)
+            .balance(Money.of(BigDecimal.valueOf(12123.12)))
+            .build();
+    bankCardRepository.save(sendingCard);
+
+    TransferDto transfer = new TransferDto(sendingCard.getId(), UUID.randomUUID(), BigDecimal.ONE);
+
+    // WHEN
+    String result =
+        mockMvc
+            .perform(
+                post(endpointsConfig.getBasePath()
+                        + endpointsConfig.getBankCardsPath()
+                        + endpointsConfig.getUserAccess()
+                        + "/transfer-self")
+                    .with(httpBasic(existingUser.getUsername(), existingUserPassword))
+                    .contentType("application/json")
+                    .content(objectMapper.writeValueAsString(transfer)))
+            .andDo(print())
+            .andExpect(status().isNotFound())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    ErrorResponse errorResponse = objectMapper.readValue(result, ErrorResponse.class);
+
+    // THEN
+    assertEquals(BankCardNotFoundException.class.getSimpleName(), errorResponse.exceptionName());
+  }
+
+  @Test
+  @SneakyThrows
+  void transferBetweenOwnerCardFailedIfSendingBankCardBalanceNotEnough() {
+    // GIVEN
+    saveExistingUser();
+
+    BigDecimal amountTransfer = BigDecimal.valueOf(1765.75);
+    BigDecimal existingSendingCardBalance = amountTransfer.subtract(BigDecimal.TEN);
+
+    BankCardEntity sendingCard =
+        BankCardEntity.builder()
+            .number(1234_1234_1234_1234L)
+            .owner(existingUser)
+            .expiryDate(LocalDate.now().plusMonths(2L))
+            .status(BankCardStatus.ACTIVE)
+            .balance(Money.of(existingSendingCardBalance))
+            .build();
+    bankCardRepository.save(sendingCard);
+
+    BankCardEntity receivingCard =
+        BankCardEntity.builder()
+            .number(1234_1234_1234_1235L)
+            .owner(existingUser)
+            .expiryDate(LocalDate.now().plusMonths(2L))
+            .status(BankCardStatus.BLOCKED)
+            .balance(Money.of(BigDecimal.valueOf(1323123.12)))
+            .build();
+    bankCardRepository.save(receivingCard);
+
+    TransferDto transfer =
+        new TransferDto(sendingCard.getId(), receivingCard.getId(), amountTransfer);
+
+    // WHEN
+    String result =
+        mockMvc
+            .perform(
+                post(endpointsConfig.getBasePath()
+                        + endpointsConfig.getBankCardsPath()
+                        + endpointsConfig.getUserAccess()
+                        + "/transfer-self")
+                    .with(httpBasic(existingUser.getUsername(), existingUserPassword))
+                    .contentType("application/json")
+                    .content(objectMapper.writeValueAsString(transfer)))
+            .andDo(print())
+            .andExpect(status().isForbidden())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    ErrorResponse errorResponse = objectMapper.readValue(result, ErrorResponse.class);
+
+    // THEN
+    assertEquals(
+        NotEnoughBankCardBalanceException.class.getSimpleName(), errorResponse.exceptionName());
+    assertTrue(ledgerEntryRepository.findAll().isEmpty());
+  }
+
+  @Test
+  @SneakyThrows
+  void transferBetweenOwnerCardFailedIfAmountScaleExceedsMinorUnits() {
+    // GIVEN
+    saveExistingUser();
+    BankCardEntity sendingCard = saveActiveCard(1234_1234_1234_1234L, BigDecimal.valueOf(100));
+    BankCardEntity receivingCard = saveActiveCard(1234_1234_1234_1235L, BigDecimal.valueOf(100));
+
+    TransferDto transfer =
+        new TransferDto(sendingCard.getId(), receivingCard.getId(), new BigDecimal("0.00001"));
+
+    // WHEN
+    String result =
+        mockMvc
+            .perform(
+                post(endpointsConfig.getBasePath()
+                        + endpointsConfig.getBankCardsPath()
+                        + endpointsConfig.getUserAccess()
+                        + "/transfer-self")
+                    .with(httpBasic(existingUser.getUsername(), existingUserPassword))
+                    .contentType("application/json")
+                    .content(objectMapper.writeValueAsString(transfer)))
+            .andDo(print())
+            .andExpect(status().isBadRequest())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    ErrorResponse errorResponse = objectMapper.readValue(result, ErrorResponse.class);
+
+    // THEN
+    assertEquals(
+        MethodArgumentNotValidException.class.getSimpleName(), errorResponse.exceptionName());
+    assertEquals(
+        Money.of(BigDecimal.valueOf(100)),
+        bankCardRepository.findById(sendingCard.getId()).get().getBalance());
+  }
+
+  @Test
+  @SneakyThrows
+  void transferBetweenOwnerCardFailedIfSendingBankCardNotActive() {
     // GIVEN
     saveExistingUser();
 
@@ -851,7 +1871,7 @@ class BankCardIntegrationTest extends BaseIntegrationTest {
             .owner(existingUser)
             .expiryDate(LocalDate.now().plusMonths(2L))
             .status(BankCardStatus.BLOCKED)
-            .balance(BigDecimal.valueOf(12123.12))
+            .balance(Money.of(BigDecimal.valueOf(12123.12)))
             .build();
     bankCardRepository.save(sendingCard);
 
@@ -861,7 +1881,7 @@ class BankCardIntegrationTest extends BaseIntegrationTest {
             .owner(existingUser)
             .expiryDate(LocalDate.now().plusMonths(2L))
             .status(BankCardStatus.ACTIVE)
-            .balance(BigDecimal.valueOf(1323123.12))
+            .balance(Money.of(BigDecimal.valueOf(1323123.12)))
             .build();
     bankCardRepository.save(receivingCard);
 
@@ -913,7 +1933,7 @@ class BankCardIntegrationTest extends BaseIntegrationTest {
             .owner(otherExistingUser)
             .expiryDate(LocalDate.now().plusMonths(2L))
             .status(BankCardStatus.ACTIVE)
-            .balance(BigDecimal.valueOf(12123.12))
+            .balance(Money.of(BigDecimal.valueOf(12123.12)))
             .build();
     bankCardRepository.save(sendingCard);
 
@@ -923,7 +1943,7 @@ class BankCardIntegrationTest extends BaseIntegrationTest {
             .owner(existingUser)
             .expiryDate(LocalDate.now().plusMonths(2L))
             .status(BankCardStatus.ACTIVE)
-            .balance(BigDecimal.valueOf(1323123.12))
+            .balance(Money.of(BigDecimal.valueOf(1323123.12)))
             .build();
     bankCardRepository.save(receivingCard);
 
@@ -965,7 +1985,7 @@ class BankCardIntegrationTest extends BaseIntegrationTest {
             .owner(existingUser)
             .expiryDate(LocalDate.now().plusMonths(2L))
             .status(BankCardStatus.ACTIVE)
-            .balance(BigDecimal.valueOf(1323123.12))
+            .balance(Money.of(BigDecimal.valueOf(1323123.12)))
             .build();
     bankCardRepository.save(receivingCard);
 
@@ -995,6 +2015,163 @@ class BankCardIntegrationTest extends BaseIntegrationTest {
     assertEquals(BankCardNotFoundException.class.getSimpleName(), errorResponse.exceptionName());
   }
 
+  @SneakyThrows
+  private TransferStatusDto awaitTransferProcessed(UUID transferId) {
+    for (int attempt = 0; attempt < 100; attempt++) {
+      String result =
+          mockMvc
+              .perform(
+                  get(endpointsConfig.getBasePath()
+                          + endpointsConfig.getBankCardsPath()
+                          + endpointsConfig.getUserAccess()
+                          + "/transfers/"
+                          + transferId)
+                      .with(httpBasic(existingUser.getUsername(), existingUserPassword)))
+              .andExpect(status().isOk())
+              .andReturn()
+              .getResponse()
+              .getContentAsString();
+      TransferStatusDto transfer = objectMapper.readValue(result, TransferStatusDto.class);
+      if (transfer.status() == TransferStatus.COMPLETED
+          || transfer.status() == TransferStatus.FAILED) {
+        return transfer;
+      }
+      Thread.sleep(50L);
+    }
+    throw new AssertionError("Перевод с id " + transferId + " не обработан");
+  }
+
+  @SneakyThrows
+  private byte[] exportBankCards(String format, boolean gzip, String expectedContentType) {
+    MvcResult asyncResult =
+        mockMvc
+            .perform(
+                get(endpointsConfig.getBasePath()
+                        + endpointsConfig.getBankCardsPath()
+                        + endpointsConfig.getAdminAccess()
+                        + "/export")
+                    .param("format", format)
+                    .param("gzip", String.valueOf(gzip))
+                    .with(httpBasic(admin.getUsername(), adminPassword)))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    return mockMvc
+        .perform(asyncDispatch(asyncResult))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CONTENT_TYPE, expectedContentType))
+        .andReturn()
+        .getResponse()
+        .getContentAsByteArray();
+  }
+
+  @SneakyThrows
+  private Map<String, Object> readJsonMap(String json) {
+    return objectMapper.readValue(json, new TypeReference<>() {});
+  }
+
+  /** Первый запрос прогревает кэши аутентификации, считаются запросы к БД второго. */
+  @SneakyThrows
+  private int countStatements(MockHttpServletRequestBuilder request) {
+    mockMvc.perform(request).andExpect(status().isOk());
+    SqlStatementCounter.reset();
+    mockMvc.perform(request).andExpect(status().isOk());
+    return SqlStatementCounter.count();
+  }
+
+  @SneakyThrows
+  private BankCardPageDto getBankCardPage(
+      String path, String cursor, String username, String password) {
+    MockHttpServletRequestBuilder request =
+        get(path).param("size", "2").with(httpBasic(username, password));
+    if (cursor != null) {
+      request.param("cursor", cursor);
+    }
+    String result =
+        mockMvc
+            .perform(request)
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readValue(result, BankCardPageDto.class);
+  }
+
+  private String bankCardUserPath(UUID cardId) {
+    return endpointsConfig.getBasePath()
+        + endpointsConfig.getBankCardsPath()
+        + endpointsConfig.getUserAccess()
+        + "/"
+        + cardId;
+  }
+
+  @SneakyThrows
+  private BankCardInfoDto getBankCardById(UUID cardId) {
+    String result =
+        mockMvc
+            .perform(
+                get(bankCardUserPath(cardId))
+                    .with(httpBasic(existingUser.getUsername(), existingUserPassword)))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readValue(result, BankCardInfoDto.class);
+  }
+
+  private String bankCardSummaryPath() {
+    return endpointsConfig.getBasePath()
+        + endpointsConfig.getBankCardsPath()
+        + endpointsConfig.getUserAccess()
+        + "/summary";
+  }
+
+  @SneakyThrows
+  private BankCardSummaryDto getBankCardSummary() {
+    String result =
+        mockMvc
+            .perform(
+                get(bankCardSummaryPath())
+                    .with(httpBasic(existingUser.getUsername(), existingUserPassword)))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    return objectMapper.readValue(result, BankCardSummaryDto.class);
+  }
+
+  private double bankCardCacheGets(String result) {
+    return meterRegistry
+        .get("cache.gets")
+        .tag("cache", "bank-cards")
+        .tag("result", result)
+        .functionCounter()
+        .count();
+  }
+
+  @SneakyThrows
+  private MockHttpServletRequestBuilder transferRequest(
+      TransferDto transfer, String idempotencyKey) {
+    return post(endpointsConfig.getBasePath()
+            + endpointsConfig.getBankCardsPath()
+            + endpointsConfig.getUserAccess()
+            + "/transfer-self")
+        .with(httpBasic(existingUser.getUsername(), existingUserPassword))
+        .header("Idempotency-Key", idempotencyKey)
+        .contentType("application/json")
+        .content(objectMapper.writeValueAsString(transfer));
+  }
+
+  private BankCardEntity saveActiveCard(long number, BigDecimal balance) {
+    return bankCardRepository.save(
+        BankCardEntity.builder()
+            .number(number)
+            .owner(existingUser)
+            .expiryDate(LocalDate.now().plusMonths(2L))
+            .status(BankCardStatus.ACTIVE)
+            .balance(Money.of(balance))
+            .build());
+  }
+
   private static void assertUserEquals(UserEntity expectedUser, UserInfoDto actualUser) {
     assertEquals(expectedUser.getId(), actualUser.id());
     assertEquals(expectedUser.getName(), actualUser.name());
@@ -0,0 +1,228 @@
+package tk.project.bankcards.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tk.project.bankcards.config.TransferConfig;
+import tk.project.bankcards.dto.TransferDto;
+import tk.project.bankcards.entity.BankCardEntity;
+import tk.project.bankcards.entity.Money;
+import tk.project.bankcards.enums.BankCardStatus;
+import tk.project.bankcards.enums.TransferMode;
+import tk.project.bankcards.exception.BankCardTransferConflictException;
+import tk.project.bankcards.service.BankCardService;
+import tk.project.bankcards.service.TransferBatchExecutor;
+import tk.project.bankcards.service.TransferBatchExecutor.PendingTransfer;
+
+class BankCardTransferConcurrencyTest extends BaseIntegrationTest {
+
+  private static final int TRANSFERS = 2_000;
+  private static final int THREADS = 16;
+
+  @Autowired private BankCardService bankCardService;
+  @Autowired private TransferConfig transferConfig;
+  @Autowired private TransferBatchExecutor transferBatchExecutor;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private TransferMode defaultMode;
+
+  @BeforeEach
+  void rememberTransferMode() {
+    defaultMode = transferConfig.getMode();
+  }
+
+  @AfterEach
+  void restoreTransferMode() {
+    transferConfig.setMode(defaultMode);
+  }
+
+  @Test
+  @SneakyThrows
+  void optimisticTransfersConserveBalance() {
+    // GIVEN
+    transferConfig.setMode(TransferMode.OPTIMISTIC);
+    saveExistingUser();
+
+    BankCardEntity firstCard = saveCard(1234_1234_1234_1234L, BigDecimal.valueOf(1_000_000));
+    BankCardEntity secondCard = saveCard(1234_1234_1234_1235L, BigDecimal.valueOf(1_000_000));
+    Money expectedTotal = firstCard.getBalance().plus(secondCard.getBalance());
+
+    TransferDto forward = new TransferDto(firstCard.getId(), secondCard.getId(), BigDecimal.ONE);
+    TransferDto backward = new TransferDto(secondCard.getId(), firstCard.getId(), BigDecimal.TEN);
+
+    Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<?>> futures = new ArrayList<>();
+
+    // WHEN
+    for (int i = 0; i < 200; i++) {
+      TransferDto transfer = i % 2 == 0 ? forward : backward;
+      futures.add(
+          executor.submit(
+              () -> {
+                try {
+                  bankCardService.transferBetweenOwnerCard(transfer, existingUser);
+                } catch (Throwable ex) {
+                  errors.add(ex);
+                }
+              }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+
+    // THEN
+    assertTrue(
+        errors.stream().allMatch(BankCardTransferConflictException.class::isInstance),
+        () -> "Ошибки переводов: " + errors);
+
+    Money actualFirst = bankCardRepository.findById(firstCard.getId()).orElseThrow().getBalance();
+    Money actualSecond =
+        bankCardRepository.findById(secondCard.getId()).orElseThrow().getBalance();
+    assertEquals(expectedTotal, actualFirst.plus(actualSecond));
+  }
+
+  @ParameterizedTest
+  @EnumSource(TransferMode.class)
+  void transferToSameCardKeepsBalance(TransferMode mode) {
+    // GIVEN
+    transferConfig.setMode(mode);
+    saveExistingUser();
+    BankCardEntity card = saveCard(1234_1234_1234_1234L, BigDecimal.TEN);
+    TransferDto transfer = new TransferDto(card.getId(), card.getId(), BigDecimal.ONE);
+
+    // WHEN
+    bankCardService.transferBetweenOwnerCard(transfer, existingUser);
+
+    // THEN
+    assertEquals(
+        card.getBalance(), bankCardRepository.findById(card.getId()).orElseThrow().getBalance());
+  }
+
+  @Test
+  void batchFailedInDatabaseRetriesTransfersOneByOne() {
+    // GIVEN
+    saveExistingUser();
+    BankCardEntity firstCard = saveCard(1234_1234_1234_1234L, BigDecimal.valueOf(100));
+    BankCardEntity secondCard = saveCard(1234_1234_1234_1235L, BigDecimal.ZERO);
+
+    PendingTransfer first = pendingTransfer(firstCard, secondCard, BigDecimal.ONE, () -> {});
+    // отметка о переводе в его транзакции нарушает ограничение NOT NULL и роняет всю пачку
+    PendingTransfer failing =
+        pendingTransfer(
+            firstCard,
+            secondCard,
+            BigDecimal.valueOf(5),
+            () ->
+                jdbcTemplate.update(
+                    "UPDATE bank_cards SET number = NULL WHERE id = ?", secondCard.getId()));
+    PendingTransfer last = pendingTransfer(firstCard, secondCard, BigDecimal.TEN, () -> {});
+
+    // WHEN
+    transferBatchExecutor.apply(List.of(first, failing, last));
+
+    // THEN
+    transferBatchExecutor.await(first.result());
+    transferBatchExecutor.await(last.result());
+    assertThrows(DataAccessException.class, () -> transferBatchExecutor.await(failing.result()));
+
+    Money transferred = Money.of(BigDecimal.valueOf(11));
+    assertEquals(
+        firstCard.getBalance().minus(transferred),
+        bankCardRepository.findById(firstCard.getId()).orElseThrow().getBalance());
+    assertEquals(
+        transferred, bankCardRepository.findById(secondCard.getId()).orElseThrow().getBalance());
+    assertEquals(4L, ledgerEntryRepository.count());
+  }
+
+  @SneakyThrows
+  @ParameterizedTest
+  @EnumSource(names = {"PESSIMISTIC", "ATOMIC", "SEQUENCED", "GROUP_COMMIT"})
+  void opposingTransfersDoNotDeadlockAndConserveBalance(TransferMode mode) {
+    // GIVEN
+    transferConfig.setMode(mode);
+    saveExistingUser();
+
+    BankCardEntity firstCard = saveCard(1234_1234_1234_1234L, BigDecimal.valueOf(1_000_000));
+    BankCardEntity secondCard = saveCard(1234_1234_1234_1235L, BigDecimal.valueOf(1_000_000));
+    Money expectedTotal = firstCard.getBalance().plus(secondCard.getBalance());
+
+    TransferDto forward = new TransferDto(firstCard.getId(), secondCard.getId(), BigDecimal.ONE);
+    TransferDto backward = new TransferDto(secondCard.getId(), firstCard.getId(), BigDecimal.TEN);
+
+    Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    List<Future<?>> futures = new ArrayList<>(TRANSFERS);
+
+    // WHEN
+    for (int i = 0; i < TRANSFERS; i++) {
+      TransferDto transfer = i % 2 == 0 ? forward : backward;
+      futures.add(
+          executor.submit(
+              () -> {
+                try {
+                  start.await();
+                  bankCardService.transferBetweenOwnerCard(transfer, existingUser);
+                } catch (Throwable ex) {
+                  errors.add(ex);
+                }
+              }));
+    }
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    executor.shutdown();
+
+    // THEN
+    assertTrue(errors.isEmpty(), () -> "Ошибки переводов: " + errors);
+
+    Money actualFirst = bankCardRepository.findById(firstCard.getId()).orElseThrow().getBalance();
+    Money actualSecond =
+        bankCardRepository.findById(secondCard.getId()).orElseThrow().getBalance();
+    assertEquals(expectedTotal, actualFirst.plus(actualSecond));
+    assertEquals(
+        firstCard.getBalance().plus(Money.of(BigDecimal.valueOf(TRANSFERS / 2 * 9L))), actualFirst);
+    assertEquals(TRANSFERS * 2L, ledgerEntryRepository.count());
+  }
+
+  private PendingTransfer pendingTransfer(
+      BankCardEntity fromCard, BankCardEntity toCard, BigDecimal amount, Runnable onTransferred) {
+    return new PendingTransfer(
+        new TransferDto(fromCard.getId(), toCard.getId(), amount), existingUser, onTransferred);
+  }
+
+  private BankCardEntity saveCard(long number, BigDecimal balance) {
+    BankCardEntity card =
+        BankCardEntity.builder()
+            .number(number)
+            .owner(existingUser)
+            .expiryDate(LocalDate.now().plusMonths(2L))
+            .status(BankCardStatus.ACTIVE)
+            .balance(Money.of(balance))
+            .build();
+    return bankCardRepository.save(card);
+  }
+}
@@ -12,8 +12,16 @@ import tk.project.bankcards.config.EndpointsConfig;
 import tk.project.bankcards.entity.UserEntity;
 import tk.project.bankcards.enums.Role;
 import tk.project.bankcards.repository.BankCardRepository;
+import tk.project.bankcards.repository.IdempotencyKeyRepository;
+import tk.project.bankcards.repository.LedgerEntryRepository;
 import tk.project.bankcards.repository.RequestRepository;
+import tk.project.bankcards.repository.TransferRepository;
 import tk.project.bankcards.repository.UserRepository;
+import tk.project.bankcards.security.CredentialsCache;
+import tk.project.bankcards.security.LoginThrottle;
+import tk.project.bankcards.security.PrincipalCache;
+import tk.project.bankcards.service.BankCardCache;
+import tk.project.bankcards.service.BankCardSummaryCache;
 
 @AutoConfigureMockMvc
 @SpringBootTest(
@@ -24,6 +32,8 @@ import tk.project.bankcards.repository.UserRepository;
       "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
       "spring.datasource.driverClassName: org.h2.Driver",
       "spring.liquibase.enabled=false",
+      "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+          + "tk.project.bankcards.integration.SqlStatementCounter",
       "app.admin-init.enabled=false"
     })
 class BaseIntegrationTest {
@@ -32,15 +42,31 @@ class BaseIntegrationTest {
   @Autowired protected EndpointsConfig endpointsConfig;
   @Autowired protected ObjectMapper objectMapper;
   @Autowired protected MockMvc mockMvc;
+  @Autowired protected BankCardCache bankCardCache;
+  @Autowired protected BankCardSummaryCache bankCardSummaryCache;
   @Autowired protected BankCardRepository bankCardRepository;
+  @Autowired protected LedgerEntryRepository ledgerEntryRepository;
+  @Autowired protected IdempotencyKeyRepository idempotencyKeyRepository;
   @Autowired protected RequestRepository requestRepository;
+  @Autowired protected TransferRepository transferRepository;
   @Autowired protected UserRepository userRepository;
+  @Autowired protected CredentialsCache credentialsCache;
+  @Autowired protected PrincipalCache principalCache;
+  @Autowired protected LoginThrottle loginThrottle;
 
   @AfterEach
   void clearDatabase() {
     requestRepository.deleteAll();
+    transferRepository.deleteAll();
+    ledgerEntryRepository.deleteAll();
+    idempotencyKeyRepository.deleteAll();
     bankCardRepository.deleteAll();
     userRepository.deleteAll();
+    credentialsCache.invalidateAll();
+    principalCache.invalidateAll();
+    bankCardCache.invalidateAll();
+    bankCardSummaryCache.invalidateAll();
+    loginThrottle.reset();
   }
 
   protected UserEntity admin;
@@ -0,0 +1,146 @@
+package tk.project.bankcards.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import tk.project.bankcards.config.TransferConfig;
+import tk.project.bankcards.dto.TransferDto;
+import tk.project.bankcards.entity.BankCardEntity;
+import tk.project.bankcards.entity.Money;
+import tk.project.bankcards.enums.BankCardStatus;
+import tk.project.bankcards.enums.TransferMode;
+import tk.project.bankcards.service.BankCardService;
+
+/**
+ * Кривая задержка/пропускная способность групповой фиксации в зависимости от окна и размера пачки.
+ * Запуск: mvn -P load-test test.
+ */
+@Slf4j
+@Tag("load")
+class GroupCommitLoadTest extends BaseIntegrationTest {
+
+  private static final int TRANSFERS = 5_000;
+  private static final int THREADS = 32;
+  private static final int CARDS = 200;
+  private static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(1_000_000);
+
+  @Autowired private BankCardService bankCardService;
+  @Autowired private TransferConfig transferConfig;
+
+  private TransferMode defaultMode;
+  private TransferConfig.GroupCommit defaultGroupCommit;
+
+  @BeforeEach
+  void rememberTransferConfig() {
+    defaultMode = transferConfig.getMode();
+    defaultGroupCommit = transferConfig.getGroupCommit();
+  }
+
+  @AfterEach
+  void restoreTransferConfig() {
+    transferConfig.setMode(defaultMode);
+    transferConfig.setGroupCommit(defaultGroupCommit);
+  }
+
+  @SneakyThrows
+  @ParameterizedTest(name = "{0}, окно {1} мс, пачка {2}")
+  @CsvSource({
+    "ATOMIC, 0, 1",
+    "GROUP_COMMIT, 0, 128",
+    "GROUP_COMMIT, 1, 16",
+    "GROUP_COMMIT, 1, 128",
+    "GROUP_COMMIT, 2, 128",
+    "GROUP_COMMIT, 5, 128",
+    "GROUP_COMMIT, 10, 256"
+  })
+  void latencyThroughputCurve(TransferMode mode, long windowMillis, int maxBatchSize) {
+    // GIVEN
+    TransferConfig.GroupCommit groupCommit = new TransferConfig.GroupCommit();
+    groupCommit.setWindow(Duration.ofMillis(windowMillis));
+    groupCommit.setMaxBatchSize(maxBatchSize);
+    transferConfig.setGroupCommit(groupCommit);
+    transferConfig.setMode(mode);
+    saveExistingUser();
+
+    List<BankCardEntity> cards = new ArrayList<>(CARDS);
+    for (int i = 0; i < CARDS; i++) {
+      cards.add(saveCard(1234_1234_0000_0000L + i));
+    }
+
+    long[] latencies = new long[TRANSFERS];
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    List<Future<?>> futures = new ArrayList<>(TRANSFERS);
+
+    // WHEN
+    for (int i = 0; i < TRANSFERS; i++) {
+      int index = i;
+      BankCardEntity from = cards.get(i % CARDS);
+      BankCardEntity to = cards.get((i + 1) % CARDS);
+      TransferDto transfer = new TransferDto(from.getId(), to.getId(), BigDecimal.ONE);
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                long startedAt = System.nanoTime();
+                bankCardService.transferBetweenOwnerCard(transfer, existingUser);
+                latencies[index] = System.nanoTime() - startedAt;
+                return null;
+              }));
+    }
+    long startedAt = System.nanoTime();
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+    executor.shutdown();
+
+    // THEN
+    Arrays.sort(latencies);
+    log.info(
+        "{}, окно {} мс, пачка {}: {} в секунду, p50 {} мкс, p99 {} мкс.",
+        mode,
+        windowMillis,
+        maxBatchSize,
+        TRANSFERS * 1000L / Math.max(elapsedMillis, 1),
+        latencies[TRANSFERS / 2] / 1_000,
+        latencies[TRANSFERS * 99 / 100] / 1_000);
+
+    BigDecimal total =
+        bankCardRepository.findAll().stream()
+            .map(BankCardEntity::getBalance)
+            .reduce(Money.ZERO, Money::plus)
+            .toBigDecimal();
+    assertEquals(0, INITIAL_BALANCE.multiply(BigDecimal.valueOf(CARDS)).compareTo(total));
+  }
+
+  private BankCardEntity saveCard(long number) {
+    BankCardEntity card =
+        BankCardEntity.builder()
+            .number(number)
+            .owner(existingUser)
+            .expiryDate(LocalDate.now().plusMonths(2L))
+            .status(BankCardStatus.ACTIVE)
+            .balance(Money.of(INITIAL_BALANCE))
+            .build();
+    return bankCardRepository.save(card);
+  }
+}
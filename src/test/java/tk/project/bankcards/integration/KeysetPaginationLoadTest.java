@@ -0,0 +1,94 @@
+package tk.project.bankcards.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import tk.project.bankcards.entity.BankCardEntity;
+import tk.project.bankcards.entity.Money;
+import tk.project.bankcards.enums.BankCardStatus;
+import tk.project.bankcards.repository.BankCardShortInfoProjection;
+
+/**
+ * Время выборки страницы карт пользователя на разной глубине: offset-пагинация и пагинация по
+ * курсору. Запуск: mvn -P load-test test -Dtest=KeysetPaginationLoadTest.
+ */
+@Slf4j
+@Tag("load")
+class KeysetPaginationLoadTest extends BaseIntegrationTest {
+
+  private static final int CARDS = 20_000;
+  private static final int PAGE_SIZE = 20;
+  private static final int REPEATS = 50;
+
+  @Test
+  void pageLatencyByDepth() {
+    // GIVEN
+    saveExistingUser();
+    List<BankCardEntity> cards = new ArrayList<>(CARDS);
+    for (int i = 0; i < CARDS; i++) {
+      cards.add(
+          BankCardEntity.builder()
+              .number(1234_0000_0000_0000L + i)
+              .owner(existingUser)
+              .expiryDate(LocalDate.now().plusMonths(2L))
+              .status(BankCardStatus.ACTIVE)
+              .balance(Money.of(BigDecimal.valueOf(i % 1_000)))
+              .build());
+    }
+    bankCardRepository.saveAll(cards);
+    Sort sort = Sort.by(Sort.Order.desc("balance"), Sort.Order.asc("id"));
+
+    for (int page : new int[] {0, 100, 500, CARDS / PAGE_SIZE - 1}) {
+      BankCardShortInfoProjection previous =
+          page == 0
+              ? null
+              : bankCardRepository
+                  .findAllShortInfoByOwnerId(
+                      existingUser.getId(), PageRequest.of(page * PAGE_SIZE - 1, 1, sort))
+                  .get(0);
+
+      Supplier<List<BankCardShortInfoProjection>> offsetQuery =
+          () ->
+              bankCardRepository.findAllShortInfoByOwnerId(
+                  existingUser.getId(), PageRequest.of(page, PAGE_SIZE, sort));
+      Supplier<List<BankCardShortInfoProjection>> keysetQuery =
+          () ->
+              previous == null
+                  ? bankCardRepository.findAllShortInfoByOwnerId(
+                      existingUser.getId(), Limit.of(PAGE_SIZE))
+                  : bankCardRepository.findAllShortInfoByOwnerIdAfter(
+                      existingUser.getId(), previous.balance(), previous.id(), Limit.of(PAGE_SIZE));
+
+      // WHEN
+      long offsetMicros = measure(offsetQuery);
+      long keysetMicros = measure(keysetQuery);
+
+      // THEN
+      log.info("Страница {}: offset {} мкс, курсор {} мкс.", page, offsetMicros, keysetMicros);
+      assertEquals(
+          offsetQuery.get().stream().map(BankCardShortInfoProjection::id).toList(),
+          keysetQuery.get().stream().map(BankCardShortInfoProjection::id).toList());
+    }
+  }
+
+  private static long measure(Supplier<List<BankCardShortInfoProjection>> query) {
+    for (int i = 0; i < REPEATS; i++) {
+      query.get();
+    }
+    long startedAt = System.nanoTime();
+    for (int i = 0; i < REPEATS; i++) {
+      query.get();
+    }
+    return (System.nanoTime() - startedAt) / REPEATS / 1_000;
+  }
+}
@@ -0,0 +1,356 @@
+package tk.project.bankcards.integration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import tk.project.bankcards.entity.Money;
+import tk.project.bankcards.enums.IdempotencyKeyStatus;
+import tk.project.bankcards.enums.TransferStatus;
+import tk.project.bankcards.repository.BankCardRepository;
+import tk.project.bankcards.repository.IdempotencyKeyRepository;
+import tk.project.bankcards.repository.TransferRepository;
+import tk.project.bankcards.repository.UserRepository;
+
+/**
+ * Планы запросов репозиториев на Postgres с заполненными таблицами. Схема создается миграциями
+ * Liquibase, каждый запрос выполняется в откатываемой транзакции, а затем для него строится план
+ * через EXPLAIN. Тест падает, если в плане есть последовательное сканирование заполненной
+ * таблицы. Отдельно проверяются запросы, которые Postgres выполняет для внешних ключей при
+ * удалении карты и пользователя.
+ *
+ * <p>Запуск на пустой базе: mvn -P query-plan test -Dplan.datasource.url=jdbc:postgresql://...
+ * -Dplan.datasource.username=... -Dplan.datasource.password=...
+ */
+@Tag("query-plan")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "plan.datasource.url", matches = ".+")
+@Import(QueryPlanTest.StatementRecordingConfig.class)
+@SpringBootTest(
+    properties = {
+      "spring.liquibase.enabled=true",
+      "spring.jpa.hibernate.ddl-auto=none",
+      "app.admin-init.enabled=false",
+      "app.transfer.async.enabled=false"
+    })
+class QueryPlanTest {
+
+  private static final int USERS = Integer.getInteger("plan.users", 20_000);
+  private static final int CARDS_PER_USER = 10;
+  private static final Set<String> SEEDED_TABLES =
+      Set.of(
+          "users", "bank_cards", "requests", "transfers", "ledger_entries", "idempotency_keys");
+
+  @Autowired private BankCardRepository bankCardRepository;
+  @Autowired private IdempotencyKeyRepository idempotencyKeyRepository;
+  @Autowired private TransferRepository transferRepository;
+  @Autowired private UserRepository userRepository;
+  @Autowired private JdbcTemplate jdbcTemplate;
+  @Autowired private ObjectMapper objectMapper;
+  @Autowired private TransactionTemplate transactionTemplate;
+
+  private UUID userId;
+  private String userEmail;
+  private UUID cardId;
+  private UUID otherCardId;
+  private long cardNumber;
+  private long cardBalance;
+
+  @DynamicPropertySource
+  static void datasourceProperties(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", () -> System.getProperty("plan.datasource.url"));
+    registry.add("spring.datasource.driverClassName", () -> "org.postgresql.Driver");
+    registry.add(
+        "spring.datasource.username", () -> System.getProperty("plan.datasource.username"));
+    registry.add(
+        "spring.datasource.password", () -> System.getProperty("plan.datasource.password"));
+  }
+
+  @BeforeAll
+  void seedTables() {
+    jdbcTemplate.update(
+        """
+        INSERT INTO users (id, name, password, email, role, create_date_time, update_date_time)
+        SELECT gen_random_uuid(), 'user ' || i, 'password', 'user' || i || '@mail.em', 'USER',
+               now(), now()
+        FROM generate_series(1, ?) i
+        """,
+        USERS);
+    jdbcTemplate.update(
+        """
+        INSERT INTO bank_cards
+            (id, number, owner_id, expiry_date, status, balance, version,
+             create_date_time, update_date_time)
+        SELECT gen_random_uuid(), 1234000000000000 + row_number() OVER (), u.id,
+               current_date + 365, 'ACTIVE', (random() * 100000000)::bigint, 0, now(), now()
+        FROM users u CROSS JOIN generate_series(1, ?)
+        """,
+        CARDS_PER_USER);
+    jdbcTemplate.update(
+        """
+        INSERT INTO requests
+            (id, owner_id, bank_card_id, action, status, create_date_time, update_date_time)
+        SELECT gen_random_uuid(), bc.owner_id, bc.id, 'BLOCK_BANK_CARD', 'EXECUTED', now(), now()
+        FROM bank_cards bc
+        """);
+    jdbcTemplate.update(
+        """
+        INSERT INTO transfers
+            (id, owner_id, from_card_id, to_card_id, amount, status, create_date_time,
+             update_date_time)
+        SELECT gen_random_uuid(), bc.owner_id, bc.id, bc.id, 10000,
+               CASE WHEN random() < 0.001 THEN 'PENDING' ELSE 'COMPLETED' END,
+               now() - random() * interval '30 days', now()
+        FROM bank_cards bc
+        """);
+    jdbcTemplate.update(
+        """
+        INSERT INTO ledger_entries (id, transfer_id, card_id, entry_type, amount, create_date_time)
+        SELECT gen_random_uuid(), t.id, t.from_card_id, e.entry_type, 10000, t.create_date_time
+        FROM transfers t CROSS JOIN (VALUES ('DEBIT'), ('CREDIT')) e(entry_type)
+        """);
+    jdbcTemplate.update(
+        """
+        INSERT INTO idempotency_keys
+            (id, user_id, key_hash, request_hash, status, create_date_time)
+        SELECT gen_random_uuid(), u.id, md5(u.id || '-' || i), md5(u.id || '+' || i),
+               'COMPLETED', now() - random() * interval '1 day'
+        FROM users u CROSS JOIN generate_series(1, 5) i
+        """);
+    jdbcTemplate.execute("ANALYZE");
+
+    Map<String, Object> card =
+        jdbcTemplate.queryForMap(
+            """
+            SELECT bc.id, bc.number, bc.owner_id, bc.balance, u.email
+            FROM bank_cards bc JOIN users u ON u.id = bc.owner_id
+            ORDER BY bc.number
+            OFFSET ?
+            LIMIT 1
+            """,
+            USERS * CARDS_PER_USER / 2);
+    cardId = (UUID) card.get("id");
+    cardNumber = ((Number) card.get("number")).longValue();
+    cardBalance = ((Number) card.get("balance")).longValue();
+    userId = (UUID) card.get("owner_id");
+    userEmail = (String) card.get("email");
+    otherCardId =
+        jdbcTemplate.queryForObject(
+            "SELECT id FROM bank_cards WHERE owner_id = ? AND id <> ? LIMIT 1",
+            UUID.class,
+            userId,
+            cardId);
+  }
+
+  @AfterAll
+  void truncateTables() {
+    jdbcTemplate.execute("TRUNCATE " + String.join(", ", SEEDED_TABLES) + " CASCADE");
+  }
+
+  Stream<Arguments> queries() {
+    return Stream.of(
+        query("BankCardRepository.findById", () -> bankCardRepository.findById(cardId)),
+        query("BankCardRepository.findAllById", () -> bankCardRepository.findAllById(cardIds())),
+        query("BankCardRepository.findByNumber", () -> bankCardRepository.findByNumber(cardNumber)),
+        query(
+            "BankCardRepository.findByIdForUpdate",
+            () -> bankCardRepository.findByIdForUpdate(cardId)),
+        query(
+            "BankCardRepository.findAllByIdInForUpdate",
+            () -> bankCardRepository.findAllByIdInForUpdate(cardIds())),
+        query(
+            "BankCardRepository.debitIfAllowed",
+            () -> bankCardRepository.debitIfAllowed(cardId, userId, 1L)),
+        query(
+            "BankCardRepository.creditIfAllowed",
+            () -> bankCardRepository.creditIfAllowed(cardId, userId, 1L)),
+        query(
+            "BankCardRepository.findAllShortInfo(Pageable)",
+            () ->
+                bankCardRepository.findAllShortInfo(
+                    PageRequest.of(10, 20, Sort.by(Sort.Direction.ASC, "number")))),
+        query(
+            "BankCardRepository.findAllShortInfoByOwnerId(Pageable)",
+            () ->
+                bankCardRepository.findAllShortInfoByOwnerId(
+                    userId, PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "balance")))),
+        query(
+            "BankCardRepository.findAllVersionsByOwnerId",
+            () ->
+                bankCardRepository.findAllVersionsByOwnerId(
+                    userId, PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "balance")))),
+        query(
+            "BankCardRepository.summarizeByOwnerId",
+            () -> bankCardRepository.summarizeByOwnerId(userId)),
+        query(
+            "BankCardRepository.findAllShortInfo(Limit)",
+            () -> bankCardRepository.findAllShortInfo(Limit.of(21))),
+        query(
+            "BankCardRepository.findAllShortInfoAfter",
+            () -> bankCardRepository.findAllShortInfoAfter(cardNumber, Limit.of(21))),
+        query(
+            "BankCardRepository.findAllShortInfoByOwnerId(Limit)",
+            () -> bankCardRepository.findAllShortInfoByOwnerId(userId, Limit.of(11))),
+        query(
+            "BankCardRepository.findAllShortInfoByOwnerIdAfter",
+            () ->
+                bankCardRepository.findAllShortInfoByOwnerIdAfter(
+                    userId, new Money(cardBalance), cardId, Limit.of(11))),
+        query("UserRepository.findByEmail", () -> userRepository.findByEmail(userEmail)),
+        query(
+            "UserRepository.findExistingEmails",
+            () -> userRepository.findExistingEmails(List.of(userEmail, "absent@mail.em"))),
+        query(
+            "TransferRepository.findPendingForUpdateSkipLocked",
+            () -> transferRepository.findPendingForUpdateSkipLocked(16)),
+        query(
+            "TransferRepository.updateStatus",
+            () ->
+                transferRepository.updateStatus(
+                    UUID.randomUUID(), 0L, TransferStatus.FAILED, null, Instant.now())),
+        query(
+            "TransferRepository.updateStatusUpdatedBefore",
+            () ->
+                transferRepository.updateStatusUpdatedBefore(
+                    TransferStatus.PROCESSING,
+                    Instant.now().minus(1, ChronoUnit.MINUTES),
+                    TransferStatus.PENDING,
+                    Instant.now())),
+        query(
+            "IdempotencyKeyRepository.findByUserIdAndKeyHash",
+            () -> idempotencyKeyRepository.findByUserIdAndKeyHash(userId, "absent")),
+        query(
+            "IdempotencyKeyRepository.updateStatus",
+            () ->
+                idempotencyKeyRepository.updateStatus(
+                    UUID.randomUUID(), IdempotencyKeyStatus.COMPLETED)),
+        query(
+            "IdempotencyKeyRepository.deleteByIdAndStatus",
+            () ->
+                idempotencyKeyRepository.deleteByIdAndStatus(
+                    UUID.randomUUID(), IdempotencyKeyStatus.IN_PROGRESS)),
+        query(
+            "IdempotencyKeyRepository.deleteAllCreatedBefore",
+            () ->
+                idempotencyKeyRepository.deleteAllCreatedBefore(
+                    Instant.now().minus(23, ChronoUnit.HOURS))),
+        query(
+            "fk_requests_bank_cards ON DELETE CASCADE",
+            () -> jdbcTemplate.update("DELETE FROM requests WHERE bank_card_id = ?", cardId)),
+        query(
+            "fk_requests_users ON DELETE CASCADE",
+            () -> jdbcTemplate.update("DELETE FROM requests WHERE owner_id = ?", userId)),
+        query(
+            "fk_bank_cards_users",
+            () ->
+                jdbcTemplate.queryForList(
+                    "SELECT 1 FROM bank_cards WHERE owner_id = ? FOR KEY SHARE", userId)),
+        query(
+            "fk_transfers_users",
+            () ->
+                jdbcTemplate.queryForList(
+                    "SELECT 1 FROM transfers WHERE owner_id = ? FOR KEY SHARE", userId)));
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("queries")
+  void queryPlanHasNoSequentialScanOfSeededTables(String name, Runnable query) {
+    // GIVEN
+    Runnable rolledBackQuery =
+        () ->
+            transactionTemplate.executeWithoutResult(
+                status -> {
+                  query.run();
+                  status.setRollbackOnly();
+                });
+
+    // WHEN
+    List<String> statements = StatementRecordingDataSource.record(rolledBackQuery);
+
+    // THEN
+    assertFalse(statements.isEmpty(), "Запрос не был выполнен: " + name);
+    for (String sql : statements) {
+      List<String> scannedTables = sequentiallyScannedTables(explain(sql));
+      assertTrue(
+          scannedTables.isEmpty(),
+          () -> "Последовательное сканирование " + scannedTables + " в плане запроса: " + sql);
+    }
+  }
+
+  private List<UUID> cardIds() {
+    return List.of(cardId, otherCardId);
+  }
+
+  @SneakyThrows
+  private JsonNode explain(String sql) {
+    String plan = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) " + sql, String.class);
+    return objectMapper.readTree(plan).get(0).get("Plan");
+  }
+
+  private static List<String> sequentiallyScannedTables(JsonNode plan) {
+    List<String> tables = new ArrayList<>();
+    collectSequentiallyScannedTables(plan, tables);
+    return tables;
+  }
+
+  private static void collectSequentiallyScannedTables(JsonNode node, List<String> tables) {
+    String table = node.path("Relation Name").asText();
+    if ("Seq Scan".equals(node.path("Node Type").asText()) && SEEDED_TABLES.contains(table)) {
+      tables.add(table);
+    }
+    node.path("Plans").forEach(child -> collectSequentiallyScannedTables(child, tables));
+  }
+
+  private static Arguments query(String name, Runnable query) {
+    return Arguments.of(name, query);
+  }
+
+  @TestConfiguration
+  static class StatementRecordingConfig {
+
+    @Bean
+    static BeanPostProcessor statementRecordingDataSourcePostProcessor() {
+      return new BeanPostProcessor() {
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+          return bean instanceof DataSource dataSource
+                  && !(bean instanceof StatementRecordingDataSource)
+              ? new StatementRecordingDataSource(dataSource)
+              : bean;
+        }
+      };
+    }
+  }
+}
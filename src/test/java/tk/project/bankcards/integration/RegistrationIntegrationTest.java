@@ -2,14 +2,21 @@ package tk.project.bankcards.integration;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.util.List;
+import java.util.stream.IntStream;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
+import tk.project.bankcards.controller.RegistrationController;
 import tk.project.bankcards.dto.ErrorResponse;
+import tk.project.bankcards.dto.UserBulkRegisterResultDto;
 import tk.project.bankcards.dto.UserInfoDto;
 import tk.project.bankcards.dto.UserRegisterDto;
 import tk.project.bankcards.entity.UserEntity;
@@ -87,4 +94,91 @@ class RegistrationIntegrationTest extends BaseIntegrationTest {
     // THEN
     assertEquals(UserConflictException.class.getSimpleName(), errorResponse.exceptionName());
   }
+
+  @Test
+  @SneakyThrows
+  void registerUsersBulkReportsEveryRow() {
+    // GIVEN
+    String existingEmail = "existing_email@mail.em";
+    UserEntity existingUser =
+        UserEntity.builder()
+            .name("existing name")
+            .password(passwordEncoder.encode("pass"))
+            .email(existingEmail)
+            .role(Role.USER)
+            .build();
+    userRepository.save(existingUser);
+
+    List<UserRegisterDto> users =
+        List.of(
+            new UserRegisterDto("first", "password1", "first@mail.em"),
+            new UserRegisterDto("existing", "password2", existingEmail),
+            new UserRegisterDto("invalid", "short", "invalid@mail.em"),
+            new UserRegisterDto("second", "password3", "second@mail.em"),
+            new UserRegisterDto("duplicate", "password4", "first@mail.em"));
+
+    // WHEN
+    String result =
+        mockMvc
+            .perform(
+                post(endpointsConfig.getBasePath()
+                        + endpointsConfig.getRegistrationPath()
+                        + "/bulk")
+                    .with(httpBasic(admin.getUsername(), adminPassword))
+                    .contentType("application/json")
+                    .content(objectMapper.writeValueAsString(users)))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    UserBulkRegisterResultDto actualResult =
+        objectMapper.readValue(result, UserBulkRegisterResultDto.class);
+
+    // THEN
+    assertEquals(2, actualResult.registered());
+    assertEquals(3, actualResult.failed());
+    assertNotNull(actualResult.results().get(0).id());
+    assertNull(actualResult.results().get(1).id());
+    assertNull(actualResult.results().get(2).id());
+    assertNotNull(actualResult.results().get(3).id());
+    assertNull(actualResult.results().get(4).id());
+    assertTrue(userRepository.findByEmail("first@mail.em").isPresent());
+    assertTrue(userRepository.findByEmail("second@mail.em").isPresent());
+    assertTrue(userRepository.findByEmail("invalid@mail.em").isEmpty());
+  }
+
+  @Test
+  @SneakyThrows
+  void registerUsersBulkRejectedIfTooManyUsers() {
+    // GIVEN
+    List<UserRegisterDto> users =
+        IntStream.rangeClosed(0, RegistrationController.MAX_BULK_SIZE)
+            .mapToObj(i -> new UserRegisterDto("name", "password", "user" + i + "@mail.em"))
+            .toList();
+
+    // WHEN
+    String result =
+        mockMvc
+            .perform(
+                post(endpointsConfig.getBasePath()
+                        + endpointsConfig.getRegistrationPath()
+                        + "/bulk")
+                    .with(httpBasic(admin.getUsername(), adminPassword))
+                    .contentType("application/json")
+                    .content(objectMapper.writeValueAsString(users)))
+            .andDo(print())
+            .andExpect(status().isBadRequest())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    ErrorResponse errorResponse = objectMapper.readValue(result, ErrorResponse.class);
+
+    // THEN
+    assertEquals(
+        HandlerMethodValidationException.class.getSimpleName(), errorResponse.exceptionName());
+    assertEquals(1, userRepository.count());
+  }
 }
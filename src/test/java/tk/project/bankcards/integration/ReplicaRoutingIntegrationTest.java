@@ -0,0 +1,236 @@
+package tk.project.bankcards.integration;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import tk.project.bankcards.datasource.ReplicaRoutingDataSource;
+import tk.project.bankcards.dto.TransferDto;
+import tk.project.bankcards.entity.BankCardEntity;
+import tk.project.bankcards.entity.Money;
+import tk.project.bankcards.entity.UserEntity;
+import tk.project.bankcards.enums.BankCardStatus;
+import tk.project.bankcards.enums.Role;
+
+/**
+ * Маршрутизация чтений на реплики. Обе реплики подключены к той же базе H2, что и основной пул,
+ * поэтому видят те же данные, а отставание задается запросом проверки: replica-1 не отстает,
+ * replica-2 отстает на час. Какой пул обслужил чтение, видно по метрике datasource.routing.reads.
+ */
+@TestPropertySource(
+    properties = {
+      "spring.datasource.url=jdbc:h2:mem:replica-routing;LOCK_TIMEOUT=60000",
+      "app.replica.enabled=true",
+      "app.replica.read-your-writes-window=1s",
+      "app.replica.max-lag=2s",
+      "app.replica.lag-check-interval=1h",
+      "app.replica.pools[0].url=jdbc:h2:mem:replica-routing;LOCK_TIMEOUT=60000",
+      "app.replica.pools[0].username=user",
+      "app.replica.pools[0].password=pass",
+      "app.replica.pools[0].lag-query=SELECT 0",
+      "app.replica.pools[1].url=jdbc:h2:mem:replica-routing;LOCK_TIMEOUT=60000",
+      "app.replica.pools[1].username=user",
+      "app.replica.pools[1].password=pass",
+      "app.replica.pools[1].lag-query=SELECT 3600"
+    })
+class ReplicaRoutingIntegrationTest extends BaseIntegrationTest {
+
+  private static final Set<String> POOLS =
+      Set.of(ReplicaRoutingDataSource.PRIMARY, "replica-1", "replica-2");
+
+  @Autowired private MeterRegistry meterRegistry;
+  @Autowired private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+  @BeforeEach
+  void checkReplicaLag() {
+    replicaRoutingDataSource.checkLag();
+  }
+
+  @Test
+  @SneakyThrows
+  void readOnlyRequestsServedByReplicaWithinMaxLag() {
+    // GIVEN
+    saveExistingUser();
+    BankCardEntity card = saveActiveCard(existingUser, 1234_1234_1234_1234L);
+    MockHttpServletRequestBuilder findCards =
+        get(userPath()).with(httpBasic(existingUser.getUsername(), existingUserPassword));
+    MockHttpServletRequestBuilder getCard =
+        get(userPath() + "/" + card.getId())
+            .with(httpBasic(existingUser.getUsername(), existingUserPassword));
+    mockMvc.perform(findCards).andExpect(status().isOk());
+    mockMvc.perform(getCard).andExpect(status().isOk());
+    Map<String, Double> readsBefore = routedReads();
+
+    // WHEN
+    mockMvc.perform(findCards).andExpect(status().isOk());
+    mockMvc.perform(getCard).andExpect(status().isOk());
+
+    // THEN
+    assertEquals(
+        Map.of("primary", 0.0, "replica-1", 1.0, "replica-2", 0.0), readsSince(readsBefore));
+  }
+
+  @Test
+  @SneakyThrows
+  void cacheLoadsServedByPrimary() {
+    // GIVEN
+    saveExistingUser();
+    BankCardEntity card = saveActiveCard(existingUser, 1234_1234_1234_1234L);
+    MockHttpServletRequestBuilder getCard =
+        get(userPath() + "/" + card.getId())
+            .with(httpBasic(existingUser.getUsername(), existingUserPassword));
+    MockHttpServletRequestBuilder getSummary =
+        get(userPath() + "/summary")
+            .with(httpBasic(existingUser.getUsername(), existingUserPassword));
+    Map<String, Double> readsBefore = routedReads();
+
+    // WHEN
+    mockMvc.perform(getCard).andExpect(status().isOk());
+    mockMvc.perform(getSummary).andExpect(status().isOk());
+    mockMvc.perform(getCard).andExpect(status().isOk());
+    mockMvc.perform(getSummary).andExpect(status().isOk());
+
+    // THEN
+    // пользователь, карта и сводка загружены в кэш мимо реплик и дальше читаются из кэша
+    assertEquals(
+        Map.of("primary", 0.0, "replica-1", 0.0, "replica-2", 0.0), readsSince(readsBefore));
+    assertEquals(card.getId(), bankCardCache.get(card.getId(), id -> null).value().id());
+  }
+
+  @Test
+  @SneakyThrows
+  void readsAfterOwnTransferServedByPrimaryWithinWindow() {
+    // GIVEN
+    saveExistingUser();
+    BankCardEntity sendingCard = saveActiveCard(existingUser, 1234_1234_1234_1234L);
+    BankCardEntity receivingCard = saveActiveCard(existingUser, 1234_1234_1234_1235L);
+    UserEntity otherUser = saveUser("other_email@mail.em");
+    saveActiveCard(otherUser, 1234_1234_1234_1236L);
+    MockHttpServletRequestBuilder findOwnCards =
+        get(userPath()).with(httpBasic(existingUser.getUsername(), existingUserPassword));
+    MockHttpServletRequestBuilder findOtherCards =
+        get(userPath()).with(httpBasic(otherUser.getUsername(), "pass"));
+    mockMvc.perform(findOtherCards).andExpect(status().isOk());
+    TransferDto transfer =
+        new TransferDto(sendingCard.getId(), receivingCard.getId(), BigDecimal.ONE);
+
+    // WHEN
+    mockMvc
+        .perform(
+            post(userPath() + "/transfer-self")
+                .with(httpBasic(existingUser.getUsername(), existingUserPassword))
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(transfer)))
+        .andExpect(status().isOk());
+    Map<String, Double> readsBefore = routedReads();
+    mockMvc.perform(findOwnCards).andExpect(status().isOk());
+    mockMvc.perform(findOtherCards).andExpect(status().isOk());
+    Map<String, Double> readsAfterTransfer = readsSince(readsBefore);
+
+    // THEN
+    assertEquals(
+        Map.of("primary", 1.0, "replica-1", 1.0, "replica-2", 0.0), readsAfterTransfer);
+    await()
+        .atMost(Duration.ofSeconds(5))
+        .untilAsserted(
+            () -> {
+              Map<String, Double> readsBeforeRetry = routedReads();
+              mockMvc.perform(findOwnCards).andExpect(status().isOk());
+              assertEquals(
+                  Map.of("primary", 0.0, "replica-1", 1.0, "replica-2", 0.0),
+                  readsSince(readsBeforeRetry));
+            });
+  }
+
+  @Test
+  @SneakyThrows
+  void writesServedByPrimary() {
+    // GIVEN
+    saveExistingUser();
+    BankCardEntity card = saveActiveCard(existingUser, 1234_1234_1234_1234L);
+    Map<String, Double> readsBefore = routedReads();
+
+    // WHEN
+    mockMvc
+        .perform(
+            patch(endpointsConfig.getBasePath()
+                    + endpointsConfig.getBankCardsPath()
+                    + endpointsConfig.getAdminAccess()
+                    + "/block/"
+                    + card.getId())
+                .with(httpBasic(admin.getUsername(), adminPassword)))
+        .andExpect(status().isOk());
+
+    // THEN
+    assertEquals(
+        Map.of("primary", 0.0, "replica-1", 0.0, "replica-2", 0.0), readsSince(readsBefore));
+    assertEquals(
+        BankCardStatus.BLOCKED, bankCardRepository.findById(card.getId()).get().getStatus());
+  }
+
+  private String userPath() {
+    return endpointsConfig.getBasePath()
+        + endpointsConfig.getBankCardsPath()
+        + endpointsConfig.getUserAccess();
+  }
+
+  private Map<String, Double> routedReads() {
+    return POOLS.stream()
+        .collect(
+            Collectors.toMap(
+                Function.identity(),
+                pool ->
+                    meterRegistry
+                        .get("datasource.routing.reads")
+                        .tag("pool", pool)
+                        .counter()
+                        .count()));
+  }
+
+  private Map<String, Double> readsSince(Map<String, Double> readsBefore) {
+    Map<String, Double> readsAfter = routedReads();
+    return POOLS.stream()
+        .collect(
+            Collectors.toMap(
+                Function.identity(), pool -> readsAfter.get(pool) - readsBefore.get(pool)));
+  }
+
+  private UserEntity saveUser(String email) {
+    return userRepository.save(
+        UserEntity.builder()
+            .name("other name")
+            .password(passwordEncoder.encode("pass"))
+            .email(email)
+            .role(Role.USER)
+            .build());
+  }
+
+  private BankCardEntity saveActiveCard(UserEntity owner, long number) {
+    return bankCardRepository.save(
+        BankCardEntity.builder()
+            .number(number)
+            .owner(owner)
+            .expiryDate(LocalDate.now().plusMonths(2L))
+            .status(BankCardStatus.ACTIVE)
+            .balance(Money.of(BigDecimal.TEN))
+            .build());
+  }
+}
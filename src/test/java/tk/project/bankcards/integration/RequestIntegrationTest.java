@@ -17,6 +17,7 @@ import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
 import tk.project.bankcards.dto.ErrorResponse;
 import tk.project.bankcards.entity.BankCardEntity;
+import tk.project.bankcards.entity.Money;
 import tk.project.bankcards.entity.RequestEntity;
 import tk.project.bankcards.entity.UserEntity;
 import tk.project.bankcards.enums.BankCardStatus;
@@ -41,7 +42,7 @@ class RequestIntegrationTest extends BaseIntegrationTest {
             .owner(existingUser)
             .expiryDate(LocalDate.now().plusMonths(2L))
             .status(BankCardStatus.ACTIVE)
-            .balance(BigDecimal.ONE)
+            .balance(Money.of(BigDecimal.ONE))
             .build();
     bankCardRepository.save(existingCard);
 
@@ -88,7 +89,7 @@ class RequestIntegrationTest extends BaseIntegrationTest {
             .owner(existingUser)
             .expiryDate(LocalDate.now().plusMonths(2L))
             .status(BankCardStatus.BLOCKED)
-            .balance(BigDecimal.ONE)
+            .balance(Money.of(BigDecimal.ONE))
             .build();
     bankCardRepository.save(existingCard);
 
@@ -137,7 +138,7 @@ class RequestIntegrationTest extends BaseIntegrationTest {
             .owner(otherExistingUser)
             .expiryDate(LocalDate.now().plusMonths(2L))
             .status(BankCardStatus.ACTIVE)
-            .balance(BigDecimal.ONE)
+            .balance(Money.of(BigDecimal.ONE))
             .build();
     bankCardRepository.save(existingCard);
 
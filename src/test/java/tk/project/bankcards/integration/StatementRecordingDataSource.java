@@ -0,0 +1,85 @@
+package tk.project.bankcards.integration;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Источник данных, который запоминает подготовленные запросы, выполненные в текущем потоке.
+ * Запрос сохраняется в виде, который возвращает toString драйвера: для Postgres это SQL с
+ * подставленными значениями параметров.
+ */
+public class StatementRecordingDataSource extends DelegatingDataSource {
+
+  private static final Set<String> EXECUTE_METHODS =
+      Set.of("execute", "executeQuery", "executeUpdate");
+  private static final ThreadLocal<List<String>> STATEMENTS = new ThreadLocal<>();
+
+  public StatementRecordingDataSource(DataSource targetDataSource) {
+    super(targetDataSource);
+  }
+
+  public static List<String> record(Runnable action) {
+    List<String> statements = new ArrayList<>();
+    STATEMENTS.set(statements);
+    try {
+      action.run();
+    } finally {
+      STATEMENTS.remove();
+    }
+    return statements;
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return recording(super.getConnection());
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return recording(super.getConnection(username, password));
+  }
+
+  private static Connection recording(Connection connection) {
+    return (Connection)
+        Proxy.newProxyInstance(
+            StatementRecordingDataSource.class.getClassLoader(),
+            new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+              Object result = invoke(connection, method, args);
+              return result instanceof PreparedStatement statement ? recording(statement) : result;
+            });
+  }
+
+  private static PreparedStatement recording(PreparedStatement statement) {
+    return (PreparedStatement)
+        Proxy.newProxyInstance(
+            StatementRecordingDataSource.class.getClassLoader(),
+            new Class<?>[] {PreparedStatement.class},
+            (proxy, method, args) -> {
+              List<String> statements = STATEMENTS.get();
+              if (statements != null
+                  && EXECUTE_METHODS.contains(method.getName())
+                  && (args == null || args.length == 0)) {
+                statements.add(statement.unwrap(PreparedStatement.class).toString());
+              }
+              return invoke(statement, method, args);
+            });
+  }
+
+  private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException ex) {
+      throw ex.getCause();
+    }
+  }
+}
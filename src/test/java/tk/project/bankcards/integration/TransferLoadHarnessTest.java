@@ -0,0 +1,367 @@
+package tk.project.bankcards.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import tk.project.bankcards.config.EndpointsConfig;
+import tk.project.bankcards.dto.ErrorResponse;
+import tk.project.bankcards.dto.TransferDto;
+import tk.project.bankcards.entity.BankCardEntity;
+import tk.project.bankcards.entity.Money;
+import tk.project.bankcards.entity.UserEntity;
+import tk.project.bankcards.enums.BankCardStatus;
+import tk.project.bankcards.enums.Role;
+import tk.project.bankcards.repository.BankCardRepository;
+import tk.project.bankcards.repository.UserRepository;
+
+/**
+ * Сквозная нагрузка через HTTP: переводы, чтение и блокировка карт в заданной пропорции. В конце
+ * проверяется, что сумма балансов не изменилась и ни один баланс не стал отрицательным.
+ *
+ * <p>Запуск: mvn -P load-test test -Dtest=TransferLoadHarnessTest. Параметры задаются
+ * системными свойствами: load.users, load.cards-per-user, load.requests, load.threads,
+ * load.transfer-weight, load.read-weight, load.block-weight. По умолчанию используется H2, для
+ * локального Postgres нужно указать load.datasource.url, load.datasource.username и
+ * load.datasource.password.
+ *
+ * <p>Схема создается миграциями Liquibase и проверяется Hibernate. На Postgres каждый запуск
+ * работает в отдельной схеме load_&lt;время запуска&gt; (или load.datasource.schema) и не удаляет
+ * строки, поэтому существующие данные базы не затрагиваются. Схему после запуска можно удалить
+ * через DROP SCHEMA ... CASCADE.
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest(
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {
+      "spring.liquibase.enabled=true",
+      "spring.jpa.hibernate.ddl-auto=validate",
+      "app.admin-init.enabled=false"
+    })
+class TransferLoadHarnessTest {
+
+  private static final int USERS = Integer.getInteger("load.users", 20);
+  private static final int CARDS_PER_USER = Integer.getInteger("load.cards-per-user", 5);
+  private static final int REQUESTS = Integer.getInteger("load.requests", 10_000);
+  private static final int THREADS = Integer.getInteger("load.threads", 32);
+  private static final int TRANSFER_WEIGHT = Integer.getInteger("load.transfer-weight", 70);
+  private static final int READ_WEIGHT = Integer.getInteger("load.read-weight", 25);
+  private static final int BLOCK_WEIGHT = Integer.getInteger("load.block-weight", 5);
+  private static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(1_000);
+  private static final String USER_PASSWORD = "loadUserPassword";
+  private static final String ADMIN_PASSWORD = "loadAdminPassword";
+  private static final String SCHEMA =
+      System.getProperty("load.datasource.schema", "load_" + System.currentTimeMillis());
+
+  @Autowired private PasswordEncoder passwordEncoder;
+  @Autowired private EndpointsConfig endpointsConfig;
+  @Autowired private ObjectMapper objectMapper;
+  @Autowired private BankCardRepository bankCardRepository;
+  @Autowired private UserRepository userRepository;
+
+  @LocalServerPort private int port;
+
+  private final HttpClient httpClient = HttpClient.newHttpClient();
+  private final Map<Operation, Queue<Long>> latencies = new EnumMap<>(Operation.class);
+  private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+  @DynamicPropertySource
+  static void datasourceProperties(DynamicPropertyRegistry registry) {
+    String url = System.getProperty("load.datasource.url");
+    if (url == null) {
+      registry.add(
+          "spring.datasource.url", () -> "jdbc:h2:mem:load;MODE=PostgreSQL;LOCK_TIMEOUT=60000");
+      registry.add("spring.datasource.driverClassName", () -> "org.h2.Driver");
+      registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.H2Dialect");
+      return;
+    }
+    registry.add(
+        "spring.datasource.url",
+        () -> url + (url.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA);
+    registry.add(
+        "spring.datasource.hikari.connection-init-sql",
+        () -> "CREATE SCHEMA IF NOT EXISTS " + SCHEMA);
+    registry.add("spring.datasource.driverClassName", () -> "org.postgresql.Driver");
+    registry.add(
+        "spring.datasource.username", () -> System.getProperty("load.datasource.username"));
+    registry.add(
+        "spring.datasource.password", () -> System.getProperty("load.datasource.password"));
+    registry.add(
+        "spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+  }
+
+  @Test
+  @SneakyThrows
+  void transferReadBlockMix() {
+    // GIVEN
+    UserEntity admin = saveAdmin();
+    List<UserEntity> users = saveUsers();
+    List<List<BankCardEntity>> cardsByUser = new ArrayList<>(USERS);
+    for (int i = 0; i < USERS; i++) {
+      cardsByUser.add(saveCards(users.get(i), i));
+    }
+    BigDecimal expectedTotal =
+        INITIAL_BALANCE.multiply(BigDecimal.valueOf((long) USERS * CARDS_PER_USER));
+    for (Operation operation : Operation.values()) {
+      latencies.put(operation, new ConcurrentLinkedQueue<>());
+    }
+    for (UserEntity user : users) {
+      warmUpCredentials(user, USER_PASSWORD);
+    }
+    warmUpCredentials(admin, ADMIN_PASSWORD);
+
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    List<Future<?>> futures = new ArrayList<>(REQUESTS);
+
+    // WHEN
+    for (int i = 0; i < REQUESTS; i++) {
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int userIndex = random.nextInt(USERS);
+                runOperation(admin, users.get(userIndex), cardsByUser.get(userIndex), random);
+                return null;
+              }));
+    }
+    long startedAt = System.nanoTime();
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+    executor.shutdown();
+
+    // THEN
+    report(elapsedMillis);
+    if (System.getProperty("load.datasource.url") != null) {
+      log.info("Данные запуска оставлены в схеме {}.", SCHEMA);
+    }
+
+    List<BankCardEntity> cards = bankCardRepository.findAll();
+    BigDecimal actualTotal =
+        cards.stream()
+            .map(BankCardEntity::getBalance)
+            .reduce(Money.ZERO, Money::plus)
+            .toBigDecimal();
+    assertEquals(0, expectedTotal.compareTo(actualTotal));
+    assertTrue(
+        cards.stream().noneMatch(card -> card.getBalance().isLessThan(Money.ZERO)),
+        "Обнаружена карта с отрицательным балансом");
+  }
+
+  private void runOperation(
+      UserEntity admin, UserEntity user, List<BankCardEntity> cards, ThreadLocalRandom random) {
+    int choice = random.nextInt(TRANSFER_WEIGHT + READ_WEIGHT + BLOCK_WEIGHT);
+    BankCardEntity card = cards.get(random.nextInt(cards.size()));
+    if (choice < TRANSFER_WEIGHT) {
+      BankCardEntity toCard = cards.get(random.nextInt(cards.size()));
+      BigDecimal amount = BigDecimal.valueOf(random.nextLong(1, 10_000), 2);
+      send(
+          Operation.TRANSFER,
+          basicAuth(user.getUsername(), USER_PASSWORD),
+          HttpRequest.newBuilder(uri(userPath() + "/transfer-self"))
+              .header("Content-Type", "application/json")
+              .POST(
+                  HttpRequest.BodyPublishers.ofString(
+                      toJson(new TransferDto(card.getId(), toCard.getId(), amount)))));
+    } else if (choice < TRANSFER_WEIGHT + READ_WEIGHT) {
+      send(
+          Operation.READ,
+          basicAuth(user.getUsername(), USER_PASSWORD),
+          HttpRequest.newBuilder(uri(userPath() + "/" + card.getId())).GET());
+    } else {
+      send(
+          Operation.BLOCK,
+          basicAuth(admin.getUsername(), ADMIN_PASSWORD),
+          HttpRequest.newBuilder(uri(adminPath() + "/block/" + card.getId()))
+              .method("PATCH", HttpRequest.BodyPublishers.noBody()));
+      send(
+          Operation.ACTIVATE,
+          basicAuth(admin.getUsername(), ADMIN_PASSWORD),
+          HttpRequest.newBuilder(uri(adminPath() + "/activate/" + card.getId()))
+              .method("PATCH", HttpRequest.BodyPublishers.noBody()));
+    }
+  }
+
+  private void send(Operation operation, String authorization, HttpRequest.Builder request) {
+    long startedAt = System.nanoTime();
+    try {
+      HttpResponse<String> response =
+          httpClient.send(
+              request.header("Authorization", authorization).build(),
+              HttpResponse.BodyHandlers.ofString());
+      latencies.get(operation).add(System.nanoTime() - startedAt);
+      if (response.statusCode() >= 300) {
+        countError(operation, exceptionName(response));
+      }
+    } catch (Exception ex) {
+      countError(operation, ex.getClass().getSimpleName());
+    }
+  }
+
+  private void countError(Operation operation, String exceptionName) {
+    errors.computeIfAbsent(operation + " " + exceptionName, key -> new LongAdder()).increment();
+  }
+
+  private String exceptionName(HttpResponse<String> response) {
+    try {
+      return objectMapper.readValue(response.body(), ErrorResponse.class).exceptionName();
+    } catch (Exception ex) {
+      return "HTTP " + response.statusCode();
+    }
+  }
+
+  private void report(long elapsedMillis) {
+    long total = latencies.values().stream().mapToLong(Queue::size).sum();
+    log.info(
+        "Пользователей {}, карт {}, потоков {}: {} запросов за {} мс ({} в секунду).",
+        USERS,
+        USERS * CARDS_PER_USER,
+        THREADS,
+        total,
+        elapsedMillis,
+        total * 1000L / Math.max(elapsedMillis, 1));
+    for (Map.Entry<Operation, Queue<Long>> entry : latencies.entrySet()) {
+      long[] sorted = entry.getValue().stream().mapToLong(Long::longValue).sorted().toArray();
+      if (sorted.length == 0) {
+        continue;
+      }
+      log.info(
+          "{}: {} запросов, p50 {} мкс, p95 {} мкс, p99 {} мкс, max {} мкс.",
+          entry.getKey(),
+          sorted.length,
+          percentile(sorted, 50) / 1_000,
+          percentile(sorted, 95) / 1_000,
+          percentile(sorted, 99) / 1_000,
+          sorted[sorted.length - 1] / 1_000);
+    }
+    new TreeMap<>(errors).forEach((key, count) -> log.info("Ошибки {}: {}.", key, count.sum()));
+  }
+
+  private static long percentile(long[] sorted, int percent) {
+    return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)];
+  }
+
+  @SneakyThrows
+  private void warmUpCredentials(UserEntity user, String password) {
+    String path = user.getRole() == Role.ADMIN ? adminPath() : userPath();
+    HttpResponse<String> response =
+        httpClient.send(
+            HttpRequest.newBuilder(uri(path))
+                .header("Authorization", basicAuth(user.getUsername(), password))
+                .GET()
+                .build(),
+            HttpResponse.BodyHandlers.ofString());
+    assertEquals(200, response.statusCode());
+  }
+
+  private UserEntity saveAdmin() {
+    return userRepository.save(
+        UserEntity.builder()
+            .name("load admin")
+            .password(passwordEncoder.encode(ADMIN_PASSWORD))
+            .email("load_admin@mail.em")
+            .role(Role.ADMIN)
+            .build());
+  }
+
+  private List<UserEntity> saveUsers() {
+    String encodedPassword = passwordEncoder.encode(USER_PASSWORD);
+    List<UserEntity> users = new ArrayList<>(USERS);
+    for (int i = 0; i < USERS; i++) {
+      users.add(
+          UserEntity.builder()
+              .name("load user " + i)
+              .password(encodedPassword)
+              .email("load_user_" + i + "@mail.em")
+              .role(Role.USER)
+              .build());
+    }
+    return userRepository.saveAll(users);
+  }
+
+  private List<BankCardEntity> saveCards(UserEntity owner, int userIndex) {
+    List<BankCardEntity> cards = new ArrayList<>(CARDS_PER_USER);
+    for (int i = 0; i < CARDS_PER_USER; i++) {
+      cards.add(
+          BankCardEntity.builder()
+              .number(1234_0000_0000_0000L + (long) userIndex * CARDS_PER_USER + i)
+              .owner(owner)
+              .expiryDate(LocalDate.now().plusMonths(2L))
+              .status(BankCardStatus.ACTIVE)
+              .balance(Money.of(INITIAL_BALANCE))
+              .build());
+    }
+    return bankCardRepository.saveAll(cards);
+  }
+
+  @SneakyThrows
+  private String toJson(Object value) {
+    return objectMapper.writeValueAsString(value);
+  }
+
+  private URI uri(String path) {
+    return URI.create("http://localhost:" + port + path);
+  }
+
+  private String userPath() {
+    return endpointsConfig.getBasePath()
+        + endpointsConfig.getBankCardsPath()
+        + endpointsConfig.getUserAccess();
+  }
+
+  private String adminPath() {
+    return endpointsConfig.getBasePath()
+        + endpointsConfig.getBankCardsPath()
+        + endpointsConfig.getAdminAccess();
+  }
+
+  private static String basicAuth(String username, String password) {
+    return "Basic "
+        + Base64.getEncoder()
+            .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+  }
+
+  private enum Operation {
+    TRANSFER,
+    READ,
+    BLOCK,
+    ACTIVATE
+  }
+}
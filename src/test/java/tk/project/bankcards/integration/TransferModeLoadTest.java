@@ -0,0 +1,139 @@
+package tk.project.bankcards.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import tk.project.bankcards.config.TransferConfig;
+import tk.project.bankcards.dto.TransferDto;
+import tk.project.bankcards.entity.BankCardEntity;
+import tk.project.bankcards.entity.Money;
+import tk.project.bankcards.enums.BankCardStatus;
+import tk.project.bankcards.enums.TransferMode;
+import tk.project.bankcards.exception.BankCardTransferConflictException;
+import tk.project.bankcards.service.BankCardService;
+
+/**
+ * Сравнение режимов перевода при высокой (2 карты) и низкой (много карт) конкуренции. Запуск:
+ * mvn -P load-test test.
+ */
+@Slf4j
+@Tag("load")
+class TransferModeLoadTest extends BaseIntegrationTest {
+
+  private static final int TRANSFERS = 5_000;
+  private static final int THREADS = 32;
+  private static final BigDecimal INITIAL_BALANCE = BigDecimal.valueOf(1_000_000);
+
+  @Autowired private BankCardService bankCardService;
+  @Autowired private TransferConfig transferConfig;
+
+  private TransferMode defaultMode;
+
+  @BeforeEach
+  void rememberTransferMode() {
+    defaultMode = transferConfig.getMode();
+  }
+
+  @AfterEach
+  void restoreTransferMode() {
+    transferConfig.setMode(defaultMode);
+  }
+
+  @SneakyThrows
+  @ParameterizedTest(name = "{0}, карт: {1}")
+  @CsvSource({
+    "PESSIMISTIC, 2",
+    "OPTIMISTIC, 2",
+    "ATOMIC, 2",
+    "SEQUENCED, 2",
+    "PESSIMISTIC, 200",
+    "OPTIMISTIC, 200",
+    "ATOMIC, 200",
+    "SEQUENCED, 200"
+  })
+  void compareTransferModes(TransferMode mode, int cardCount) {
+    // GIVEN
+    transferConfig.setMode(mode);
+    saveExistingUser();
+
+    List<BankCardEntity> cards = new ArrayList<>(cardCount);
+    for (int i = 0; i < cardCount; i++) {
+      cards.add(saveCard(1234_1234_0000_0000L + i));
+    }
+
+    AtomicInteger conflicts = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    List<Future<?>> futures = new ArrayList<>(TRANSFERS);
+
+    // WHEN
+    for (int i = 0; i < TRANSFERS; i++) {
+      BankCardEntity from = cards.get(i % cardCount);
+      BankCardEntity to = cards.get((i + 1) % cardCount);
+      TransferDto transfer = new TransferDto(from.getId(), to.getId(), BigDecimal.ONE);
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                try {
+                  bankCardService.transferBetweenOwnerCard(transfer, existingUser);
+                } catch (BankCardTransferConflictException ex) {
+                  conflicts.incrementAndGet();
+                }
+                return null;
+              }));
+    }
+    long startedAt = System.nanoTime();
+    start.countDown();
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+    executor.shutdown();
+
+    // THEN
+    log.info(
+        "Режим {}, карт {}: {} переводов за {} мс ({} в секунду), отклонено по конфликту: {}.",
+        mode,
+        cardCount,
+        TRANSFERS,
+        elapsedMillis,
+        TRANSFERS * 1000L / Math.max(elapsedMillis, 1),
+        conflicts.get());
+
+    BigDecimal total =
+        bankCardRepository.findAll().stream()
+            .map(BankCardEntity::getBalance)
+            .reduce(Money.ZERO, Money::plus)
+            .toBigDecimal();
+    assertEquals(0, INITIAL_BALANCE.multiply(BigDecimal.valueOf(cardCount)).compareTo(total));
+  }
+
+  private BankCardEntity saveCard(long number) {
+    BankCardEntity card =
+        BankCardEntity.builder()
+            .number(number)
+            .owner(existingUser)
+            .expiryDate(LocalDate.now().plusMonths(2L))
+            .status(BankCardStatus.ACTIVE)
+            .balance(Money.of(INITIAL_BALANCE))
+            .build();
+    return bankCardRepository.save(card);
+  }
+}
@@ -1,25 +1,42 @@
 package tk.project.bankcards.integration;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import tk.project.bankcards.config.AuthConfig;
+import tk.project.bankcards.dto.AccessTokenDto;
 import tk.project.bankcards.dto.ErrorResponse;
+import tk.project.bankcards.dto.LoginDto;
 import tk.project.bankcards.dto.UserInfoDto;
 import tk.project.bankcards.dto.UserUpdateDto;
 import tk.project.bankcards.entity.UserEntity;
 import tk.project.bankcards.enums.Role;
+import tk.project.bankcards.exception.TooManyLoginAttemptsException;
 import tk.project.bankcards.exception.UserConflictException;
 import tk.project.bankcards.exception.UserNotFoundException;
+import tk.project.bankcards.security.LoginThrottle;
 
 class UserIntegrationTest extends BaseIntegrationTest {
 
+  @Autowired private AuthConfig authConfig;
+
   @Test
   @SneakyThrows
   void getAuthUser() {
@@ -237,4 +254,368 @@ class UserIntegrationTest extends BaseIntegrationTest {
     // THEN
     assertEquals(UserConflictException.class.getSimpleName(), errorResponse.exceptionName());
   }
+
+  @Test
+  @SneakyThrows
+  void authWithOldPasswordFailedAfterPasswordUpdate() {
+    // GIVEN
+    saveExistingUser();
+    String userPath =
+        endpointsConfig.getBasePath()
+            + endpointsConfig.getUsersPath()
+            + endpointsConfig.getUserAccess();
+
+    mockMvc
+        .perform(get(userPath).with(httpBasic(existingUser.getUsername(), existingUserPassword)))
+        .andExpect(status().isOk());
+
+    UserUpdateDto userUpdateDto =
+        new UserUpdateDto(existingUser.getId(), null, "new password", null);
+    mockMvc
+        .perform(
+            patch(
+                    endpointsConfig.getBasePath()
+                        + endpointsConfig.getUsersPath()
+                        + endpointsConfig.getAdminAccess())
+                .with(httpBasic(admin.getUsername(), adminPassword))
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(userUpdateDto)))
+        .andExpect(status().isOk());
+
+    // WHEN & THEN
+    mockMvc
+        .perform(get(userPath).with(httpBasic(existingUser.getUsername(), existingUserPassword)))
+        .andDo(print())
+        .andExpect(status().isUnauthorized());
+    mockMvc
+        .perform(get(userPath).with(httpBasic(existingUser.getUsername(), "new password")))
+        .andDo(print())
+        .andExpect(status().isOk());
+  }
+
+  @Test
+  void credentialsNotCachedIfInvalidatedDuringPasswordCheck() {
+    // GIVEN
+    saveExistingUser();
+    String email = existingUser.getEmail();
+    long generation = credentialsCache.generation(email);
+
+    // WHEN
+    credentialsCache.invalidate(email);
+    credentialsCache.put(email, existingUserPassword, existingUser, generation);
+
+    // THEN
+    assertTrue(credentialsCache.get(email, existingUserPassword).isEmpty());
+  }
+
+  @Test
+  @SneakyThrows
+  void principalLoadedBeforeInvalidationNotLeftInCache() {
+    // GIVEN
+    saveExistingUser();
+    String email = existingUser.getEmail();
+    UserEntity staleUser = UserEntity.builder().email(email).role(Role.ADMIN).build();
+    CountDownLatch loadStarted = new CountDownLatch(1);
+    CountDownLatch releaseLoad = new CountDownLatch(1);
+    CompletableFuture<Optional<UserEntity>> staleLoad =
+        CompletableFuture.supplyAsync(
+            () ->
+                principalCache.get(
+                    email,
+                    key -> {
+                      loadStarted.countDown();
+                      awaitLatch(releaseLoad);
+                      return Optional.of(staleUser);
+                    }));
+    loadStarted.await();
+
+    // WHEN
+    CompletableFuture<Void> invalidation =
+        CompletableFuture.runAsync(() -> principalCache.invalidate(email));
+    // Удаление должно начаться до завершения загрузки
+    TimeUnit.MILLISECONDS.sleep(100);
+    releaseLoad.countDown();
+    staleLoad.get(5, TimeUnit.SECONDS);
+    invalidation.get(5, TimeUnit.SECONDS);
+    Optional<UserEntity> principal = principalCache.get(email, userRepository::findByEmail);
+
+    // THEN
+    assertEquals(Role.USER, principal.orElseThrow().getRole());
+  }
+
+  @Test
+  void missingPrincipalNotCached() {
+    // GIVEN
+    saveExistingUser();
+    String email = existingUser.getEmail();
+
+    // WHEN
+    Optional<UserEntity> missing = principalCache.get(email, key -> Optional.empty());
+    Optional<UserEntity> loaded = principalCache.get(email, userRepository::findByEmail);
+
+    // THEN
+    assertTrue(missing.isEmpty());
+    assertEquals(existingUser.getId(), loaded.orElseThrow().getId());
+  }
+
+  @Test
+  @SneakyThrows
+  void getAuthUserByAccessToken() {
+    // GIVEN
+    saveExistingUser();
+    LoginDto login = new LoginDto(existingUser.getEmail(), existingUserPassword);
+
+    String tokenResult =
+        mockMvc
+            .perform(
+                post(endpointsConfig.getBasePath()
+                        + endpointsConfig.getUsersPath()
+                        + endpointsConfig.getTokenPath())
+                    .contentType("application/json")
+                    .content(objectMapper.writeValueAsString(login)))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    AccessTokenDto accessToken = objectMapper.readValue(tokenResult, AccessTokenDto.class);
+
+    // WHEN
+    String result =
+        mockMvc
+            .perform(
+                get(endpointsConfig.getBasePath()
+                        + endpointsConfig.getUsersPath()
+                        + endpointsConfig.getUserAccess())
+                    .header(
+                        "Authorization",
+                        accessToken.tokenType() + " " + accessToken.accessToken()))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    UserInfoDto actualUser = objectMapper.readValue(result, UserInfoDto.class);
+
+    // THEN
+    assertEquals(existingUser.getId(), actualUser.id());
+    assertEquals(existingUser.getEmail(), actualUser.email());
+  }
+
+  @Test
+  @SneakyThrows
+  void getAuthUserFailedIfAccessTokenTampered() {
+    // GIVEN
+    saveExistingUser();
+    LoginDto login = new LoginDto(existingUser.getEmail(), existingUserPassword);
+
+    String tokenResult =
+        mockMvc
+            .perform(
+                post(endpointsConfig.getBasePath()
+                        + endpointsConfig.getUsersPath()
+                        + endpointsConfig.getTokenPath())
+                    .contentType("application/json")
+                    .content(objectMapper.writeValueAsString(login)))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    AccessTokenDto accessToken = objectMapper.readValue(tokenResult, AccessTokenDto.class);
+    String tamperedToken = "e30" + accessToken.accessToken().substring(3);
+
+    // WHEN & THEN
+    mockMvc
+        .perform(
+            get(endpointsConfig.getBasePath()
+                    + endpointsConfig.getUsersPath()
+                    + endpointsConfig.getUserAccess())
+                .header("Authorization", accessToken.tokenType() + " " + tamperedToken))
+        .andDo(print())
+        .andExpect(status().isUnauthorized());
+  }
+
+  @Test
+  @SneakyThrows
+  void issueAccessTokenFailedIfPasswordWrong() {
+    // GIVEN
+    saveExistingUser();
+    LoginDto login = new LoginDto(existingUser.getEmail(), "wrong password");
+
+    // WHEN & THEN
+    mockMvc
+        .perform(
+            post(endpointsConfig.getBasePath()
+                    + endpointsConfig.getUsersPath()
+                    + endpointsConfig.getTokenPath())
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(login)))
+        .andDo(print())
+        .andExpect(status().isUnauthorized());
+  }
+
+  @Test
+  @SneakyThrows
+  void getAuthUserReturnsUpdatedDataAfterUserUpdate() {
+    // GIVEN
+    saveExistingUser();
+    String userPath =
+        endpointsConfig.getBasePath()
+            + endpointsConfig.getUsersPath()
+            + endpointsConfig.getUserAccess();
+
+    mockMvc
+        .perform(get(userPath).with(httpBasic(existingUser.getUsername(), existingUserPassword)))
+        .andExpect(status().isOk());
+
+    String expectedName = "new name";
+    UserUpdateDto userUpdateDto = new UserUpdateDto(existingUser.getId(), expectedName, null, null);
+    mockMvc
+        .perform(
+            patch(
+                    endpointsConfig.getBasePath()
+                        + endpointsConfig.getUsersPath()
+                        + endpointsConfig.getAdminAccess())
+                .with(httpBasic(admin.getUsername(), adminPassword))
+                .contentType("application/json")
+                .content(objectMapper.writeValueAsString(userUpdateDto)))
+        .andExpect(status().isOk());
+
+    // WHEN
+    String result =
+        mockMvc
+            .perform(
+                get(userPath).with(httpBasic(existingUser.getUsername(), existingUserPassword)))
+            .andDo(print())
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    UserInfoDto actualUser = objectMapper.readValue(result, UserInfoDto.class);
+
+    // THEN
+    assertEquals(existingUser.getId(), actualUser.id());
+    assertEquals(expectedName, actualUser.name());
+  }
+
+  @Test
+  @SneakyThrows
+  void passwordRehashedOnLoginIfHashStrengthOutdated() {
+    // GIVEN
+    String password = "weakHashPassword";
+    UserEntity weakHashUser =
+        UserEntity.builder()
+            .name("weak hash name")
+            .password(new BCryptPasswordEncoder(4).encode(password))
+            .email("weak_hash_email@mail.em")
+            .role(Role.USER)
+            .build();
+    userRepository.save(weakHashUser);
+
+    // WHEN
+    mockMvc
+        .perform(
+            get(endpointsConfig.getBasePath()
+                    + endpointsConfig.getUsersPath()
+                    + endpointsConfig.getUserAccess())
+                .with(httpBasic(weakHashUser.getUsername(), password)))
+        .andDo(print())
+        .andExpect(status().isOk());
+
+    // THEN
+    String actualHash = userRepository.findById(weakHashUser.getId()).orElseThrow().getPassword();
+    assertTrue(actualHash.startsWith("$2a$10$"));
+    assertTrue(passwordEncoder.matches(password, actualHash));
+  }
+
+  @Test
+  @SneakyThrows
+  void authRejectedWithTooManyRequestsAfterRepeatedWrongPasswords() {
+    // GIVEN
+    saveExistingUser();
+    String userPath =
+        endpointsConfig.getBasePath()
+            + endpointsConfig.getUsersPath()
+            + endpointsConfig.getUserAccess();
+
+    for (int i = 0; i < authConfig.getThrottle().getCapacity(); i++) {
+      mockMvc
+          .perform(get(userPath).with(httpBasic(existingUser.getUsername(), "wrong password")))
+          .andExpect(status().isUnauthorized());
+    }
+
+    // WHEN
+    String result =
+        mockMvc
+            .perform(
+                get(userPath).with(httpBasic(existingUser.getUsername(), existingUserPassword)))
+            .andDo(print())
+            .andExpect(status().isTooManyRequests())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    ErrorResponse errorResponse = objectMapper.readValue(result, ErrorResponse.class);
+
+    // THEN
+    assertEquals(
+        TooManyLoginAttemptsException.class.getSimpleName(), errorResponse.exceptionName());
+  }
+
+  @Test
+  @SneakyThrows
+  void authWithCachedCredentialsNotThrottledAfterRepeatedWrongPasswords() {
+    // GIVEN
+    saveExistingUser();
+    String userPath =
+        endpointsConfig.getBasePath()
+            + endpointsConfig.getUsersPath()
+            + endpointsConfig.getUserAccess();
+    mockMvc
+        .perform(get(userPath).with(httpBasic(existingUser.getUsername(), existingUserPassword)))
+        .andExpect(status().isOk());
+
+    for (int i = 0; i < authConfig.getThrottle().getCapacity(); i++) {
+      mockMvc
+          .perform(get(userPath).with(httpBasic(existingUser.getUsername(), "wrong password")))
+          .andExpect(status().isUnauthorized());
+    }
+
+    // WHEN & THEN
+    mockMvc
+        .perform(get(userPath).with(httpBasic(existingUser.getUsername(), existingUserPassword)))
+        .andExpect(status().isOk());
+    mockMvc
+        .perform(get(userPath).with(httpBasic(existingUser.getUsername(), "wrong password")))
+        .andExpect(status().isTooManyRequests());
+  }
+
+  @Test
+  void exhaustedLoginBucketNotEvictedByNewKeysInFullStripe() {
+    // GIVEN
+    AuthConfig config = new AuthConfig();
+    config.getThrottle().setCapacity(1);
+    config.getThrottle().setStripes(1);
+    config.getThrottle().setMaxEntriesPerStripe(2);
+    LoginThrottle throttle = new LoginThrottle(config, new SimpleMeterRegistry());
+    throttle.tryAcquire("victim@mail.em", "10.0.0.1");
+    throttle.tryAcquire("junk-1@mail.em", "10.0.0.2");
+
+    // WHEN
+    boolean newKeyAcquired = throttle.tryAcquire("junk-2@mail.em", "10.0.0.2");
+    boolean victimAcquired = throttle.tryAcquire("victim@mail.em", "10.0.0.1");
+
+    // THEN
+    assertFalse(newKeyAcquired);
+    assertFalse(victimAcquired);
+  }
+
+  @SneakyThrows
+  private static void awaitLatch(CountDownLatch latch) {
+    latch.await();
+  }
 }